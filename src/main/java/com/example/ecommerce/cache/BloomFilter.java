@@ -0,0 +1,113 @@
+package com.example.ecommerce.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never returns false for a value
+ * that was added, and returns true for a value that was not with roughly the configured
+ * false-positive rate as long as no more than the expected number of values are added.
+ * Values cannot be removed. Adds and lookups are lock-free and safe to run concurrently.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Sizes the filter for {@code expectedInsertions} values at {@code falsePositiveRate}.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs positive insertions and a rate in (0, 1)");
+        }
+        long bitSize = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN2));
+        return new BloomFilter(bitSize, hashFunctions);
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = words.getAndUpdate(word, current -> current | mask);
+            if ((previous & mask) == 0) {
+                bitsSet.incrementAndGet();
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive rate for the values added so far, from the fraction of bits set.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitSize, hashFunctions);
+    }
+
+    /**
+     * Number of distinct values added, estimated from the fraction of bits set.
+     */
+    public long approximateElementCount() {
+        double fractionUnset = 1 - (double) bitsSet.get() / bitSize;
+        return Math.round(-bitSize * Math.log(fractionUnset) / hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreads FNV's weak low bits over the whole word.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, read-through cache for reactive loaders.
+ * <ul>
+ *     <li>Concurrent misses for the same key share a single in-flight load.</li>
+ *     <li>Entries older than {@code ttl} are still served while a background reload runs
+ *     (stale-while-revalidate); they are dropped after {@code ttl + maxStale}.</li>
+ *     <li>Failed or empty loads are not cached.</li>
+ * </ul>
+ */
+public class ReactiveCache<K, V> {
+
+    private final AsyncLoadingCache<K, V> cache;
+
+    public ReactiveCache(String name, long maxSize, Duration ttl, Duration maxStale,
+                         Function<K, Mono<V>> loader, MeterRegistry meterRegistry) {
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .refreshAfterWrite(ttl)
+            .expireAfterWrite(ttl.plus(maxStale))
+            .recordStats()
+            .buildAsync((K key, Executor executor) -> loader.apply(key).toFuture()), name);
+    }
+
+    public Mono<V> get(K key) {
+        // Cancelling one subscriber must not cancel the load shared with the others
+        return Mono.fromFuture(() -> cache.get(key), true);
+    }
+
+    /**
+     * Reloads the entry in the background; the current value keeps being served until the reload completes.
+     */
+    public void refresh(K key) {
+        cache.synchronous().refresh(key);
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
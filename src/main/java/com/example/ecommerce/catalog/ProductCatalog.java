@@ -0,0 +1,154 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.CategoryFacet;
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.dto.response.ProductFacetsResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of the product catalog with the indexes needed to answer
+ * every product read without going upstream. A new snapshot is built on each refresh.
+ */
+public final class ProductCatalog {
+
+    private final List<ProductDTO> productsAsc;
+    private final Map<Long, ProductDTO> productsById;
+    private final Map<String, List<ProductDTO>> productsByCategory;
+    private final List<String> categories;
+    private final String version;
+    private final ProductSearchIndex searchIndex;
+    private final ProductListIndex listIndex;
+    private final ProductFacetsResponse facets;
+
+    private ProductCatalog(List<ProductDTO> products, ProductCatalog previous) {
+        List<ProductDTO> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(ProductDTO::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        this.productsAsc = Collections.unmodifiableList(sorted);
+        this.productsById = sorted.stream()
+            .filter(product -> product.getId() != null)
+            .collect(Collectors.toUnmodifiableMap(ProductDTO::getId, product -> product, (first, second) -> first));
+        this.productsByCategory = Collections.unmodifiableMap(sorted.stream()
+            .filter(product -> product.getCategory() != null)
+            .collect(Collectors.groupingBy(ProductDTO::getCategory, LinkedHashMap::new,
+                Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList))));
+        this.categories = List.copyOf(productsByCategory.keySet());
+        this.version = contentHash(sorted);
+        this.searchIndex = ProductSearchIndex.build(productsAsc, previous != null ? previous.searchIndex : null);
+        this.listIndex = new ProductListIndex(productsAsc);
+        this.facets = buildFacets(productsAsc, productsByCategory);
+    }
+
+    public static ProductCatalog of(List<ProductDTO> products) {
+        return new ProductCatalog(products, null);
+    }
+
+    /**
+     * Builds a new snapshot, reusing the search analysis of products unchanged since {@code previous}.
+     */
+    public static ProductCatalog of(List<ProductDTO> products, ProductCatalog previous) {
+        return new ProductCatalog(products, previous);
+    }
+
+    /**
+     * Products matching the query's price range and categories, in the requested order.
+     */
+    public ProductPage getProducts(ProductQuery query) {
+        return listIndex.query(query);
+    }
+
+    public Optional<ProductDTO> findById(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    public List<ProductDTO> getProductsByCategory(String category) {
+        return productsByCategory.getOrDefault(category, List.of());
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<ProductDTO> search(String query, Double minPrice, Double maxPrice, int limit) {
+        return searchIndex.search(query, minPrice, maxPrice, limit);
+    }
+
+    /**
+     * Per-category counts and price bounds, aggregated once when the snapshot is built.
+     */
+    public ProductFacetsResponse getFacets() {
+        return facets;
+    }
+
+    public int size() {
+        return productsAsc.size();
+    }
+
+    /**
+     * Content hash of the snapshot, computed once when it is built. Two snapshots with the
+     * same products have the same version, so an unchanged refresh keeps client ETags valid.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    private static ProductFacetsResponse buildFacets(List<ProductDTO> products,
+                                                     Map<String, List<ProductDTO>> productsByCategory) {
+        List<CategoryFacet> categoryFacets = productsByCategory.entrySet().stream()
+            .map(entry -> {
+                DoubleSummaryStatistics prices = priceStatistics(entry.getValue());
+                return CategoryFacet.builder()
+                    .category(entry.getKey())
+                    .count(entry.getValue().size())
+                    .minPrice(prices.getCount() > 0 ? prices.getMin() : null)
+                    .maxPrice(prices.getCount() > 0 ? prices.getMax() : null)
+                    .build();
+            })
+            .toList();
+        DoubleSummaryStatistics prices = priceStatistics(products);
+        return ProductFacetsResponse.builder()
+            .total(products.size())
+            .minPrice(prices.getCount() > 0 ? prices.getMin() : null)
+            .maxPrice(prices.getCount() > 0 ? prices.getMax() : null)
+            .categories(categoryFacets)
+            .build();
+    }
+
+    private static DoubleSummaryStatistics priceStatistics(List<ProductDTO> products) {
+        return products.stream()
+            .map(ProductDTO::getPrice)
+            .filter(Objects::nonNull)
+            .mapToDouble(Double::doubleValue)
+            .summaryStatistics();
+    }
+
+    private static String contentHash(List<ProductDTO> products) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (ProductDTO product : products) {
+            String row = product.getId() + "\u001f" + product.getTitle() + "\u001f" + product.getPrice()
+                + "\u001f" + product.getDescription() + "\u001f" + product.getCategory()
+                + "\u001f" + product.getImage() + "\u001e";
+            digest.update(row.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+}
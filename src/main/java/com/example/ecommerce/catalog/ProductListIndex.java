@@ -0,0 +1,241 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted primitive views of a catalog snapshot used to answer filtered, sorted and paged
+ * listings. Products are referred to by their position in the id-ordered list; each sort
+ * order is a permutation of those positions. Price ranges are resolved by binary search over
+ * the price-sorted prices, and cursors by binary search over the requested sort order.
+ */
+final class ProductListIndex {
+
+    private final List<ProductDTO> products;
+    private final int[] byId;
+    private final int[] byPrice;
+    private final int[] byTitle;
+
+    /**
+     * Prices in {@link #byPrice} order; products without a price sort last as +Infinity.
+     */
+    private final double[] sortedPrices;
+    private final double[] prices;
+    private final String[] titleKeys;
+    private final int[] categoryOf;
+    private final Map<String, Integer> categoryIds;
+
+    ProductListIndex(List<ProductDTO> products) {
+        this.products = products;
+        int size = products.size();
+
+        prices = new double[size];
+        titleKeys = new String[size];
+        categoryOf = new int[size];
+        categoryIds = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            ProductDTO product = products.get(i);
+            prices[i] = product.getPrice() != null ? product.getPrice() : Double.POSITIVE_INFINITY;
+            titleKeys[i] = product.getTitle() != null ? product.getTitle().toLowerCase(Locale.ROOT) : "";
+            categoryOf[i] = product.getCategory() != null
+                ? categoryIds.computeIfAbsent(product.getCategory(), category -> categoryIds.size())
+                : -1;
+        }
+
+        // Positions are already in id order; ties on price or title are broken by that position
+        byId = IntStream.range(0, size).toArray();
+        byPrice = sortedPositions(Comparator.comparingDouble(i -> prices[i]));
+        byTitle = sortedPositions(Comparator.comparing(i -> titleKeys[i]));
+        sortedPrices = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedPrices[i] = prices[byPrice[i]];
+        }
+    }
+
+    ProductPage query(ProductQuery query) {
+        int[] order = switch (query.sort()) {
+            case ID -> byId;
+            case PRICE -> byPrice;
+            case TITLE -> byTitle;
+        };
+
+        // [from, to) is the slice of `order` that can contain results
+        int from = 0;
+        int to = order.length;
+        boolean filterPrice = query.hasPriceRange();
+        if (query.sort() == ProductQuery.Sort.PRICE && filterPrice) {
+            from = lowerBound(sortedPrices, query.minPrice() != null ? query.minPrice() : Double.NEGATIVE_INFINITY);
+            to = upperBound(sortedPrices, query.maxPrice() != null ? query.maxPrice() : Double.MAX_VALUE);
+            filterPrice = false;
+        }
+        if (query.cursor() != null) {
+            Cursor cursor = decodeCursor(query.sort(), query.cursor());
+            if (query.descending()) {
+                // Descending pages walk the order backwards, so the cursor bounds the upper end
+                to = Math.min(to, cursorPosition(order, query.sort(), cursor, false));
+            } else {
+                from = Math.max(from, cursorPosition(order, query.sort(), cursor, true));
+            }
+        }
+
+        boolean[] categoryFilter = categoryFilter(query);
+        int limit = query.limit() != null ? query.limit() : Integer.MAX_VALUE;
+        int skip = query.offset();
+        List<ProductDTO> page = new ArrayList<>(Math.min(Math.max(to - from, 0), Math.min(limit, 1024)));
+        int last = -1;
+        boolean more = false;
+
+        for (int i = 0; i < to - from; i++) {
+            int position = order[query.descending() ? to - 1 - i : from + i];
+            if (categoryFilter != null && (categoryOf[position] < 0 || !categoryFilter[categoryOf[position]])) {
+                continue;
+            }
+            if (filterPrice && !inPriceRange(prices[position], query)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (page.size() == limit) {
+                more = true;
+                break;
+            }
+            page.add(products.get(position));
+            last = position;
+        }
+
+        return new ProductPage(page, more ? encodeCursor(query.sort(), last) : null);
+    }
+
+    private boolean[] categoryFilter(ProductQuery query) {
+        if (query.categories() == null || query.categories().isEmpty()) {
+            return null;
+        }
+        boolean[] filter = new boolean[categoryIds.size()];
+        for (String category : query.categories()) {
+            Integer id = categoryIds.get(category);
+            if (id != null) {
+                filter[id] = true;
+            }
+        }
+        return filter;
+    }
+
+    private static boolean inPriceRange(double price, ProductQuery query) {
+        return price != Double.POSITIVE_INFINITY
+            && (query.minPrice() == null || price >= query.minPrice())
+            && (query.maxPrice() == null || price <= query.maxPrice());
+    }
+
+    /**
+     * Index in {@code order} of the first product that sorts after the cursor, or at or after
+     * it when {@code after} is false. The cursor product itself may no longer exist.
+     */
+    private int cursorPosition(int[] order, ProductQuery.Sort sort, Cursor cursor, boolean after) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareToCursor(order[mid], sort, cursor);
+            if (comparison < 0 || (after && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToCursor(int position, ProductQuery.Sort sort, Cursor cursor) {
+        int byKey = switch (sort) {
+            case ID -> 0;
+            case PRICE -> Double.compare(prices[position], cursor.price());
+            case TITLE -> titleKeys[position].compareTo(cursor.key());
+        };
+        if (byKey != 0) {
+            return byKey;
+        }
+        Long id = products.get(position).getId();
+        return id == null ? 1 : Long.compare(id, cursor.id());
+    }
+
+    private String encodeCursor(ProductQuery.Sort sort, int position) {
+        String key = switch (sort) {
+            case ID -> "";
+            case PRICE -> Double.toString(prices[position]);
+            case TITLE -> titleKeys[position];
+        };
+        String raw = sort.name() + ":" + products.get(position).getId() + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(ProductQuery.Sort sort, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new BadRequestException("Cursor does not belong to this sort order");
+            }
+            double price = sort == ProductQuery.Sort.PRICE ? Double.parseDouble(parts[2]) : 0;
+            return new Cursor(Long.parseLong(parts[1]), parts[2], price);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    private int[] sortedPositions(Comparator<Integer> comparator) {
+        return IntStream.range(0, products.size())
+            .boxed()
+            .sorted(comparator.thenComparingInt(i -> i))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * First index whose value is >= {@code value}.
+     */
+    private static int lowerBound(double[] values, double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First index whose value is > {@code value}.
+     */
+    private static int upperBound(double[] values, double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record Cursor(long id, String key, double price) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+
+import java.util.List;
+
+/**
+ * One page of a catalog listing; {@code nextCursor} is null on the last page.
+ */
+public record ProductPage(List<ProductDTO> products, String nextCursor) {
+}
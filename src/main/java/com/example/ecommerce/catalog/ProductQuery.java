@@ -0,0 +1,73 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.exception.BadRequestException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filter, sort and page parameters for listing the catalog. {@code categories} empty means
+ * any category; {@code limit} null means no limit. {@code cursor} is the value returned as
+ * {@link ProductPage#nextCursor()} by the previous page of the same query.
+ */
+public record ProductQuery(
+    Double minPrice,
+    Double maxPrice,
+    Set<String> categories,
+    Sort sort,
+    boolean descending,
+    int offset,
+    String cursor,
+    Integer limit
+) {
+
+    public enum Sort {
+        ID, PRICE, TITLE
+    }
+
+    /**
+     * Builds a query from request parameters. {@code sort} is id, price or title; the legacy
+     * values asc and desc sort by id. {@code order} (asc or desc) overrides the direction.
+     */
+    public static ProductQuery of(Double minPrice, Double maxPrice, List<String> categories, String sort,
+                                  String order, Integer offset, String cursor, Integer limit) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        if (offset != null && offset < 0) {
+            throw new BadRequestException("offset must not be negative");
+        }
+
+        String sortValue = sort != null ? sort.toLowerCase(Locale.ROOT) : "id";
+        boolean descending = sortValue.equals("desc");
+        Sort sortField = switch (sortValue) {
+            case "id", "asc", "desc" -> Sort.ID;
+            case "price" -> Sort.PRICE;
+            case "title" -> Sort.TITLE;
+            default -> throw new BadRequestException("Invalid sort: " + sort + ". Expected id, price or title");
+        };
+        if (order != null) {
+            descending = switch (order.toLowerCase(Locale.ROOT)) {
+                case "asc" -> false;
+                case "desc" -> true;
+                default -> throw new BadRequestException("Invalid order: " + order + ". Expected asc or desc");
+            };
+        }
+
+        return new ProductQuery(
+            minPrice,
+            maxPrice,
+            categories != null ? Set.copyOf(categories) : Set.of(),
+            sortField,
+            descending,
+            offset != null ? offset : 0,
+            cursor,
+            limit != null && limit > 0 ? limit : null
+        );
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Immutable inverted index over product title, category and description.
+ * <p>
+ * Queries are tokenized like the indexed text; every query token must match (AND), the last
+ * one may also match as a prefix so results show up while the user is typing. Matches are
+ * ranked by field weight and term rarity. A new index is built for every catalog snapshot,
+ * reusing the analyzed terms of products that did not change.
+ */
+public final class ProductSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    /**
+     * Upper bound on the number of terms a single prefix expands to, so a one-letter query
+     * does not walk the whole vocabulary.
+     */
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private final List<ProductDTO> products;
+    private final Map<Long, AnalyzedProduct> analyzed;
+    private final String[] terms;
+    private final Postings[] postings;
+
+    private ProductSearchIndex(List<ProductDTO> products, ProductSearchIndex previous) {
+        this.products = products;
+        this.analyzed = new HashMap<>(products.size() * 2);
+
+        TreeMap<String, PostingsBuilder> builders = new TreeMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            ProductDTO product = products.get(doc);
+            AnalyzedProduct analyzedProduct = previous != null ? previous.analyzed.get(product.getId()) : null;
+            if (analyzedProduct == null || !analyzedProduct.product().equals(product)) {
+                analyzedProduct = AnalyzedProduct.of(product);
+            }
+            if (product.getId() != null) {
+                analyzed.put(product.getId(), analyzedProduct);
+            }
+            for (int i = 0; i < analyzedProduct.terms().length; i++) {
+                builders.computeIfAbsent(analyzedProduct.terms()[i], term -> new PostingsBuilder())
+                    .add(doc, analyzedProduct.weights()[i]);
+            }
+        }
+
+        this.terms = builders.keySet().toArray(String[]::new);
+        this.postings = new Postings[terms.length];
+        int i = 0;
+        for (PostingsBuilder builder : builders.values()) {
+            postings[i++] = builder.build(products.size());
+        }
+    }
+
+    /**
+     * Indexes {@code products}; analyzed terms of products unchanged since {@code previous}
+     * are reused instead of tokenizing them again.
+     */
+    public static ProductSearchIndex build(List<ProductDTO> products, ProductSearchIndex previous) {
+        return new ProductSearchIndex(products, previous);
+    }
+
+    /**
+     * Products matching every token of {@code query}, best match first, restricted to the
+     * optional price range and truncated to {@code limit}.
+     */
+    public List<ProductDTO> search(String query, Double minPrice, Double maxPrice, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Each token yields a doc-sorted list of matches; intersecting them gives AND semantics
+        Matches matches = null;
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            int from = Arrays.binarySearch(terms, token);
+            boolean exact = from >= 0;
+            if (!exact) {
+                from = -from - 1;
+            }
+            // Earlier tokens were completed by the user, so only the last one matches as a prefix
+            int to = t == tokens.size() - 1 ? prefixEnd(token, from) : (exact ? from + 1 : from);
+            Matches tokenMatches = collect(token, from, to);
+            matches = matches == null ? tokenMatches : matches.intersect(tokenMatches);
+            if (matches.size() == 0) {
+                return List.of();
+            }
+        }
+
+        // Keep only the best `limit` hits in a min-heap instead of sorting every match
+        Matches hits = matches;
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> hits.compare(b, a));
+        for (int i = 0; i < hits.size(); i++) {
+            if (!inPriceRange(products.get(hits.docs()[i]), minPrice, maxPrice)) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(i);
+            } else if (hits.compare(i, top.peek()) < 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+
+        ProductDTO[] results = new ProductDTO[top.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+            results[i] = products.get(hits.docs()[top.poll()]);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Union of the postings of terms[from, to) with their weighted scores, sorted by doc.
+     */
+    private Matches collect(String token, int from, int to) {
+        if (to - from == 1) {
+            Postings termPostings = postings[from];
+            float weight = termWeight(token, from);
+            float[] scores = new float[termPostings.docs().length];
+            for (int k = 0; k < scores.length; k++) {
+                scores[k] = weight * termPostings.weights()[k];
+            }
+            return new Matches(termPostings.docs(), scores, scores.length);
+        }
+
+        int total = 0;
+        for (int termIndex = from; termIndex < to; termIndex++) {
+            total += postings[termIndex].docs().length;
+        }
+        // doc in the high bits and score bits in the low bits, so one sort groups entries by doc
+        long[] entries = new long[total];
+        int n = 0;
+        for (int termIndex = from; termIndex < to; termIndex++) {
+            Postings termPostings = postings[termIndex];
+            float weight = termWeight(token, termIndex);
+            for (int k = 0; k < termPostings.docs().length; k++) {
+                float score = weight * termPostings.weights()[k];
+                entries[n++] = ((long) termPostings.docs()[k] << 32) | (Float.floatToIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(entries);
+
+        int[] docs = new int[total];
+        float[] scores = new float[total];
+        int size = 0;
+        for (long entry : entries) {
+            int doc = (int) (entry >>> 32);
+            float score = Float.intBitsToFloat((int) entry);
+            if (size > 0 && docs[size - 1] == doc) {
+                scores[size - 1] += score;
+            } else {
+                docs[size] = doc;
+                scores[size++] = score;
+            }
+        }
+        return new Matches(docs, scores, size);
+    }
+
+    private float termWeight(String token, int termIndex) {
+        return postings[termIndex].idf() * (terms[termIndex].length() == token.length() ? 1f : PREFIX_WEIGHT);
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    private int prefixEnd(String prefix, int from) {
+        int to = from;
+        while (to < terms.length && to - from < MAX_PREFIX_TERMS && terms[to].startsWith(prefix)) {
+            to++;
+        }
+        return to;
+    }
+
+    private static boolean inPriceRange(ProductDTO product, Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        Double price = product.getPrice();
+        return price != null
+            && (minPrice == null || price >= minPrice)
+            && (maxPrice == null || price <= maxPrice);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Distinct terms of one product with the summed weight of the fields they occur in.
+     */
+    private record AnalyzedProduct(ProductDTO product, String[] terms, float[] weights) {
+
+        static AnalyzedProduct of(ProductDTO product) {
+            Map<String, Float> termWeights = new HashMap<>();
+            addField(termWeights, product.getTitle(), TITLE_WEIGHT);
+            addField(termWeights, product.getCategory(), CATEGORY_WEIGHT);
+            addField(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+            String[] terms = new String[termWeights.size()];
+            float[] weights = new float[termWeights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                terms[i] = entry.getKey();
+                weights[i++] = entry.getValue();
+            }
+            return new AnalyzedProduct(copyOf(product), terms, weights);
+        }
+
+        private static void addField(Map<String, Float> termWeights, String text, float weight) {
+            for (String token : tokenize(text)) {
+                termWeights.merge(token, weight, Float::sum);
+            }
+        }
+
+        /**
+         * ProductDTO is mutable, so a copy is kept to detect changes on the next rebuild.
+         */
+        private static ProductDTO copyOf(ProductDTO product) {
+            ProductDTO copy = new ProductDTO();
+            copy.setId(product.getId());
+            copy.setTitle(product.getTitle());
+            copy.setPrice(product.getPrice());
+            copy.setDescription(product.getDescription());
+            copy.setCategory(product.getCategory());
+            copy.setImage(product.getImage());
+            return copy;
+        }
+    }
+
+    private record Postings(int[] docs, float[] weights, float idf) {
+    }
+
+    /**
+     * Matching docs in ascending order with their accumulated scores; only the first
+     * {@code size} entries are valid.
+     */
+    private record Matches(int[] docs, float[] scores, int size) {
+
+        Matches intersect(Matches other) {
+            int capacity = Math.min(size, other.size);
+            int[] resultDocs = new int[capacity];
+            float[] resultScores = new float[capacity];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                int a = docs[i];
+                int b = other.docs[j];
+                if (a < b) {
+                    i++;
+                } else if (a > b) {
+                    j++;
+                } else {
+                    resultDocs[n] = a;
+                    resultScores[n++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Matches(resultDocs, resultScores, n);
+        }
+
+        /**
+         * Orders entries by descending score, then by catalog position.
+         */
+        int compare(int a, int b) {
+            int byScore = Float.compare(scores[b], scores[a]);
+            return byScore != 0 ? byScore : Integer.compare(docs[a], docs[b]);
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size++] = weight;
+        }
+
+        Postings build(int documentCount) {
+            float idf = (float) Math.log(1 + (double) documentCount / size);
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(weights, size), idf);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits for the unauthenticated auth endpoints. Periods are in milliseconds:
+ * a bucket holds {@code capacity} requests and refills completely over {@code period}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * How often idle buckets are dropped.
+     */
+    private long expiryInterval = 1000;
+
+    /**
+     * Per-client-IP limits, keyed by endpoint name.
+     */
+    private Map<String, EndpointLimit> endpoints = new LinkedHashMap<>(Map.of(
+        "login", new EndpointLimit("/api/auth/login", 20, 60000),
+        "signup", new EndpointLimit("/api/auth/signup", 5, 600000),
+        "forgot-password", new EndpointLimit("/api/auth/forgot-password", 5, 900000)
+    ));
+
+    /**
+     * Failed login attempts per username or email from one client IP.
+     */
+    private Limit account = new Limit(10, 900000);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int capacity;
+        private long period;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @NoArgsConstructor
+    public static class EndpointLimit extends Limit {
+        private String path;
+
+        public EndpointLimit(String path, int capacity, long period) {
+            super(capacity, period);
+            this.path = path;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.ecommerce.config;
 import com.example.ecommerce.security.JwtAuthenticationFilter;
+import com.example.ecommerce.security.PasswordEncoderFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -8,7 +10,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
@@ -16,6 +17,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -26,6 +28,18 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${app.password-hashing.algorithm:bcrypt}")
+    private String passwordHashingAlgorithm;
+
+    /**
+     * BCrypt cost factor; 0 calibrates it at startup against the target time.
+     */
+    @Value("${app.password-hashing.strength:0}")
+    private Integer passwordHashingStrength;
+
+    @Value("${app.password-hashing.target-time:100}")
+    private Long passwordHashingTargetTime;
+
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
         return http
@@ -37,6 +51,9 @@ public class SecurityConfig {
             .authorizeExchange(exchanges -> exchanges
                 .pathMatchers(HttpMethod.POST, "/api/auth/**").permitAll()
                 .pathMatchers(HttpMethod.GET, "/api/products/categories").permitAll()
+                // Probes call health without credentials; metrics expose cache, pool and limiter internals
+                .pathMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .pathMatchers("/actuator/**").hasRole("ADMIN")
                 .anyExchange().authenticated()
             )
             .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
@@ -45,7 +62,8 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return PasswordEncoderFactory.create(passwordHashingAlgorithm, passwordHashingStrength,
+            Duration.ofMillis(passwordHashingTargetTime));
     }
 
     @Bean
@@ -0,0 +1,123 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.catalog.ProductCatalog;
+import com.example.ecommerce.catalog.ProductQuery;
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.security.CustomUserDetails;
+import com.example.ecommerce.security.JwtTokenProvider;
+import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Opt-in warm-up that runs before the application reports readiness. Spring Boot only
+ * switches readiness to ACCEPTING_TRAFFIC after all ApplicationRunners have returned, so
+ * the first requests routed by the load balancer hit a loaded cache, an open connection
+ * pool and JIT-compiled token and serialization paths. Each step is best effort: a failure
+ * is logged and the next step still runs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private final ProductService productService;
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final JwtTokenProvider tokenProvider;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.warmup.iterations:2000}")
+    private Integer iterations;
+
+    @Value("${app.warmup.db-queries:50}")
+    private Integer dbQueries;
+
+    @Value("${app.warmup.timeout:30000}")
+    private Long timeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        log.info("Warm-up started");
+
+        step("product catalog", () -> {
+            ProductCatalog catalog = productService.getCatalog().block(Duration.ofMillis(timeout));
+            return (catalog != null ? catalog.size() : 0) + " products";
+        });
+        step("database pool", this::warmDatabase);
+        step("token sign/verify", this::warmTokens);
+        step("product serialization", this::warmSerialization);
+
+        log.info("Warm-up finished in {} ms", elapsedMillis(start));
+    }
+
+    private String warmDatabase() {
+        if (connectionFactory instanceof ConnectionPool pool) {
+            pool.warmup().block(Duration.ofMillis(timeout));
+        }
+        Long completed = Flux.range(0, dbQueries)
+            .flatMap(i -> databaseClient.sql("SELECT 1").fetch().first())
+            .count()
+            .block(Duration.ofMillis(timeout));
+        return completed + " queries";
+    }
+
+    private String warmTokens() {
+        CustomUserDetails user = new CustomUserDetails(0L, "warmup", null, null, true, List.of("ROLE_USER"));
+        for (int i = 0; i < iterations; i++) {
+            String token = tokenProvider.generateAccessToken(user);
+            tokenProvider.verifyAndExtract(token);
+        }
+        return iterations + " tokens";
+    }
+
+    private String warmSerialization() throws JsonProcessingException {
+        ProductCatalog catalog = productService.getCatalog().block(Duration.ofMillis(timeout));
+        if (catalog == null || catalog.size() == 0) {
+            return "skipped, catalog is empty";
+        }
+        List<ProductDTO> page = catalog.getProducts(ProductQuery.of(null, null, null, null, null, null, null, 20))
+            .products();
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            bytes += objectMapper.writeValueAsBytes(page.get(i % page.size())).length;
+        }
+        bytes += objectMapper.writeValueAsBytes(catalog.getFacets()).length;
+        return iterations + " products, " + bytes + " bytes";
+    }
+
+    private void step(String name, WarmupStep step) {
+        long start = System.nanoTime();
+        try {
+            String result = step.run();
+            log.info("Warm-up step '{}' took {} ms ({})", name, elapsedMillis(start), result);
+        } catch (Exception e) {
+            log.warn("Warm-up step '{}' failed after {} ms: {}", name, elapsedMillis(start), e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        String run() throws Exception;
+    }
+}
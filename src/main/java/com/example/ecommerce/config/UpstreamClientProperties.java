@@ -0,0 +1,28 @@
+package com.example.ecommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection pool and timeout settings for the FakeStore WebClient. Durations are in milliseconds.
+ */
+@Data
+@ConfigurationProperties(prefix = "fakestore.client")
+public class UpstreamClientProperties {
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 500;
+    private long pendingAcquireTimeout = 5000;
+    private long maxIdleTime = 30000;
+    private long maxLifeTime = 300000;
+    private long evictionInterval = 30000;
+    private int connectTimeout = 2000;
+    private long readTimeout = 5000;
+    private long writeTimeout = 5000;
+    private long responseTimeout = 5000;
+    private boolean compress = true;
+    /**
+     * Negotiates HTTP/2 via ALPN; only takes effect for https upstreams.
+     */
+    private boolean http2 = false;
+    private boolean metricsEnabled = true;
+}
@@ -1,14 +1,66 @@
 package com.example.ecommerce.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(UpstreamClientProperties.class)
 public class WebClientConfig {
 
+    private static final Pattern NUMERIC_PATH_SEGMENT = Pattern.compile("/\\d+");
+
+    private final UpstreamClientProperties properties;
+
     @Bean
     public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+        return builder
+            .clientConnector(new ReactorClientHttpConnector(httpClient()))
+            .build();
+    }
+
+    HttpClient httpClient() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("fakestore")
+            .maxConnections(properties.getMaxConnections())
+            .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(Duration.ofMillis(properties.getPendingAcquireTimeout()))
+            .maxIdleTime(Duration.ofMillis(properties.getMaxIdleTime()))
+            .maxLifeTime(Duration.ofMillis(properties.getMaxLifeTime()))
+            .evictInBackground(Duration.ofMillis(properties.getEvictionInterval()))
+            .metrics(properties.isMetricsEnabled())
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeout())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .responseTimeout(Duration.ofMillis(properties.getResponseTimeout()))
+            .compress(properties.isCompress())
+            // Handlers added per request are removed when the connection goes back to the pool,
+            // so idle pooled connections are not closed by the read timeout
+            .doOnRequest((request, connection) -> connection
+                .addHandlerLast(new ReadTimeoutHandler(properties.getReadTimeout(), TimeUnit.MILLISECONDS))
+                .addHandlerLast(new WriteTimeoutHandler(properties.getWriteTimeout(), TimeUnit.MILLISECONDS)))
+            .metrics(properties.isMetricsEnabled(), uri -> NUMERIC_PATH_SEGMENT.matcher(uri).replaceAll("/{id}"));
+
+        if (properties.isHttp2()) {
+            httpClient = httpClient
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .secure();
+        }
+        return httpClient;
     }
 }
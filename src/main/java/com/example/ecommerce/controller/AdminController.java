@@ -1,8 +1,10 @@
 package com.example.ecommerce.controller;
 import com.example.ecommerce.dto.response.MessageResponse;
+import com.example.ecommerce.dto.response.UserPageResponse;
 import com.example.ecommerce.dto.response.UserResponse;
 import com.example.ecommerce.service.AdminService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -17,8 +19,21 @@ public class AdminController {
     private final AdminService adminService;
 
     @GetMapping("/users")
-    public Flux<UserResponse> getAllUsers() {
-        return adminService.getAllUsers();
+    public Mono<UserPageResponse> getUsers(
+        @RequestParam(required = false) Long after,
+        @RequestParam(required = false) Integer size,
+        @RequestParam(required = false) Boolean enabled,
+        @RequestParam(required = false) Boolean emailVerified,
+        @RequestParam(required = false) String role) {
+        return adminService.getUsers(after, size, enabled, emailVerified, role);
+    }
+
+    @GetMapping(value = "/users/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserResponse> exportUsers(
+        @RequestParam(required = false) Boolean enabled,
+        @RequestParam(required = false) Boolean emailVerified,
+        @RequestParam(required = false) String role) {
+        return adminService.exportUsers(enabled, emailVerified, role);
     }
 
     @GetMapping("/users/{id}")
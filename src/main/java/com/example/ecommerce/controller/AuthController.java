@@ -3,10 +3,12 @@ package com.example.ecommerce.controller;
 import com.example.ecommerce.dto.request.*;
 import com.example.ecommerce.dto.response.AuthResponse;
 import com.example.ecommerce.dto.response.MessageResponse;
+import com.example.ecommerce.security.RateLimitService;
 import com.example.ecommerce.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
@@ -24,8 +26,8 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public Mono<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        return authService.login(request);
+    public Mono<AuthResponse> login(@Valid @RequestBody LoginRequest request, ServerHttpRequest httpRequest) {
+        return authService.login(request, RateLimitService.clientIp(httpRequest));
     }
 
     @PostMapping("/refresh-token")
@@ -1,61 +1,152 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.catalog.ProductCatalog;
+import com.example.ecommerce.catalog.ProductPage;
+import com.example.ecommerce.catalog.ProductQuery;
 import com.example.ecommerce.dto.request.CreateProductRequest;
+import com.example.ecommerce.dto.request.ProductBatchRequest;
 import com.example.ecommerce.dto.request.UpdateProductRequest;
+import com.example.ecommerce.dto.response.ProductBatchResponse;
 import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.dto.response.ProductFacetsResponse;
 import com.example.ecommerce.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    /**
+     * Set on list responses that have more results; pass it back as {@code cursor} for the next page.
+     */
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService productService;
 
-    @GetMapping
+    @Value("${app.catalog.http.max-age:60000}")
+    private Long httpMaxAge;
+
+    /**
+     * Allows shared caches (CDN, proxies) to store catalog responses. Off by default because
+     * the endpoints require authentication.
+     */
+    @Value("${app.catalog.http.shared-cache:false}")
+    private boolean sharedCache;
+
+    /**
+     * List endpoints also stream one product per line (NDJSON) or per event (SSE) when the
+     * client asks for it, so products are written out as they are emitted instead of as one array.
+     */
+    @GetMapping(produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_NDJSON_VALUE,
+        MediaType.TEXT_EVENT_STREAM_VALUE
+    })
     @PreAuthorize("isAuthenticated()")
-    public Flux<ProductDTO> getAllProducts(
+    public Mono<ResponseEntity<Flux<ProductDTO>>> getAllProducts(
+        @RequestParam(required = false) Double minPrice,
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) List<String> category,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String order,
+        @RequestParam(required = false) Integer offset,
+        @RequestParam(required = false) String cursor,
         @RequestParam(required = false) Integer limit,
-        @RequestParam(required = false) String sort
+        ServerWebExchange exchange
     ) {
-        return productService.getAllProducts(limit, sort);
+        ProductQuery query = ProductQuery.of(minPrice, maxPrice, category, sort, order, offset, cursor, limit);
+        return productService.getCatalog()
+            .map(catalog -> {
+                ProductPage page = catalog.getProducts(query);
+                ResponseEntity.BodyBuilder response = cacheable(exchange, catalog, "products", query);
+                if (page.nextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                }
+                return response.body(Flux.fromIterable(page.products()));
+            });
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasRole('ADMIN')")
-    public Mono<Object> addProduct(@RequestBody CreateProductRequest product){
+    public Mono<ProductDTO> addProduct(@RequestBody CreateProductRequest product){
         return productService.addProduct(product);
     }
 
+    @GetMapping("/facets")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<ProductFacetsResponse>> getFacets(ServerWebExchange exchange) {
+        return productService.getCatalog()
+            .map(catalog -> cacheable(exchange, catalog, "facets").body(catalog.getFacets()));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public Flux<ProductDTO> searchProducts(
+        @RequestParam String q,
+        @RequestParam(required = false) Double minPrice,
+        @RequestParam(required = false) Double maxPrice,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return productService.searchProducts(q, minPrice, maxPrice, limit);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ProductBatchResponse> getProductsByIds(@Valid @RequestBody ProductBatchRequest request) {
+        return productService.getProductsByIds(request.getIds());
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public Mono<ProductDTO> getProductById(@PathVariable Long id) {
         return productService.getProductById(id);
     }
 
-    @GetMapping("/category/{category}")
+    @GetMapping(value = "/category/{category}", produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_NDJSON_VALUE,
+        MediaType.TEXT_EVENT_STREAM_VALUE
+    })
     @PreAuthorize("isAuthenticated()")
-    public Flux<ProductDTO> getProductsByCategory(@PathVariable String category) {
-        return productService.getProductsByCategory(category);
+    public Mono<ResponseEntity<Flux<ProductDTO>>> getProductsByCategory(
+        @PathVariable String category,
+        ServerWebExchange exchange
+    ) {
+        return productService.getCatalog()
+            .map(catalog -> cacheable(exchange, catalog, "category", category)
+                .body(Flux.fromIterable(catalog.getProductsByCategory(category))));
     }
 
     @GetMapping("/categories")
     @PreAuthorize("isAuthenticated()")
-    public Flux<String> getAllCategories() {
-        return productService.getAllCategories();
+    public Mono<ResponseEntity<Flux<String>>> getAllCategories(ServerWebExchange exchange) {
+        return productService.getCatalog()
+            .map(catalog -> cacheable(exchange, catalog, "categories")
+                .body(Flux.fromIterable(catalog.getCategories())));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public Mono<Object> updateProduct(
+    public Mono<ProductDTO> updateProduct(
         @PathVariable Long id,
         @Valid @RequestBody UpdateProductRequest request) {
         return productService.updateProduct(id, request);
@@ -63,7 +154,22 @@ public class ProductController {
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public Mono<Object> deleteProduct(@PathVariable Long id) {
+    public Mono<ProductDTO> deleteProduct(@PathVariable Long id) {
         return productService.deleteProduct(id);
     }
+
+    /**
+     * Wraps a catalog read with a strong ETag derived from the snapshot version and the request
+     * variant. Matching If-None-Match requests are answered with 304 by the result handler
+     * without writing the body.
+     */
+    private ResponseEntity.BodyBuilder cacheable(ServerWebExchange exchange, ProductCatalog catalog, Object... variant) {
+        String accept = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT);
+        String variantHash = Integer.toHexString(Objects.hash(Arrays.hashCode(variant), accept));
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofMillis(httpMaxAge)).mustRevalidate();
+        return ResponseEntity.ok()
+            .eTag(catalog.getVersion() + "-" + variantHash)
+            .cacheControl(sharedCache ? cacheControl.cachePublic() : cacheControl.cachePrivate())
+            .varyBy(HttpHeaders.ACCEPT);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.ecommerce.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBatchRequest {
+    @NotEmpty(message = "At least one product id is required")
+    @Size(max = 100, message = "At most 100 product ids can be requested at once")
+    private List<@NotNull(message = "Product id must not be null") Long> ids;
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Product body sent to the FakeStore API on create and update. Null fields are left out,
+ * so a partial update only carries the fields that were set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductPayload(
+    String title,
+    Double price,
+    String description,
+    String category,
+    String image
+) {
+
+    public static ProductPayload from(CreateProductRequest request) {
+        return new ProductPayload(
+            request.getTitle(),
+            request.getPrice(),
+            request.getDescription(),
+            request.getCategory(),
+            request.getImage()
+        );
+    }
+
+    public static ProductPayload from(UpdateProductRequest request) {
+        return new ProductPayload(
+            request.getTitle(),
+            request.getPrice(),
+            request.getDescription(),
+            request.getCategory(),
+            request.getImage()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.dto.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CategoryFacet {
+    String category;
+    Integer count;
+    Double minPrice;
+    Double maxPrice;
+}
@@ -0,0 +1,21 @@
+package com.example.ecommerce.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result for one requested id: either the product or the reason it could not be returned.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBatchItem {
+    private Long id;
+    private ProductDTO product;
+    private String error;
+}
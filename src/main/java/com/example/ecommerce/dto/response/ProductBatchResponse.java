@@ -0,0 +1,17 @@
+package com.example.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<ProductBatchItem> products;
+    private Integer found;
+    private Integer failed;
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce.dto.response;
+
+import lombok.Builder;
+import lombok.Value;
+import java.util.List;
+
+/**
+ * Immutable, as one instance is built per catalog snapshot and served to every request.
+ */
+@Value
+public class ProductFacetsResponse {
+    Integer total;
+    Double minPrice;
+    Double maxPrice;
+    List<CategoryFacet> categories;
+
+    @Builder
+    public ProductFacetsResponse(Integer total, Double minPrice, Double maxPrice, List<CategoryFacet> categories) {
+        this.total = total;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.categories = categories != null ? List.copyOf(categories) : List.of();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageResponse {
+    private List<UserResponse> users;
+    private Integer size;
+    private Long nextCursor;
+}
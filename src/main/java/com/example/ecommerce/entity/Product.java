@@ -0,0 +1,28 @@
+package com.example.ecommerce.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Local copy of a FakeStore product. The id is the upstream id, not generated here.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("products")
+public class Product {
+    @Id
+    private Long id;
+    private String title;
+    private Double price;
+    private String description;
+    private String category;
+    private String image;
+    private LocalDateTime syncedAt;
+}
@@ -8,15 +8,26 @@ import org.springframework.data.relational.core.mapping.Table;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table("refresh_tokens")
 public class RefreshToken {
     @Id
     private Long id;
-    private String token;
+    /**
+     * Hex SHA-256 of the token; the token itself is never stored.
+     */
+    private String tokenHash;
     private Long userId;
+    /**
+     * Shared by every token rotated from the same login.
+     */
+    private String familyId;
     private LocalDateTime expiryDate;
+    /**
+     * Set when the token is exchanged for a new one; presenting it again means it was stolen.
+     */
+    private LocalDateTime usedAt;
     private LocalDateTime createdAt;
 }
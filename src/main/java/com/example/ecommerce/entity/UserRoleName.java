@@ -0,0 +1,13 @@
+package com.example.ecommerce.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleName {
+    private Long userId;
+    private String name;
+}
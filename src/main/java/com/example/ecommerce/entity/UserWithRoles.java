@@ -0,0 +1,15 @@
+package com.example.ecommerce.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserWithRoles {
+    private User user;
+    private List<String> roles;
+}
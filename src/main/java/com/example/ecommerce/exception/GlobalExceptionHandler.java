@@ -1,6 +1,9 @@
 package com.example.ecommerce.exception;
 import com.example.ecommerce.dto.response.ErrorResponse;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,7 +16,6 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.naming.ServiceUnavailableException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -130,17 +132,19 @@ public class GlobalExceptionHandler {
 //        return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body(error));
 //    }
 
-//    @ExceptionHandler(RateLimitExceededException.class)
-//    public Mono<ResponseEntity<ErrorResponse>> handleRateLimitExceededException(
-//        RateLimitExceededException ex, ServerWebExchange exchange) {
-//        log.warn("Rate limit exceeded: {}", ex.getMessage());
-//        ErrorResponse error = buildErrorResponse(
-//            HttpStatus.TOO_MANY_REQUESTS,
-//            ex.getMessage(),
-//            exchange.getRequest().getPath().value()
-//        );
-//        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error));
-//    }
+    @ExceptionHandler(RateLimitExceededException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleRateLimitExceededException(
+        RateLimitExceededException ex, ServerWebExchange exchange) {
+        log.warn("Rate limit exceeded: {}", ex.getMessage());
+        ErrorResponse error = buildErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS,
+            ex.getMessage(),
+            exchange.getRequest().getPath().value()
+        );
+        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(error));
+    }
 
 //    @ExceptionHandler(EmailSendException.class)
 //    public Mono<ResponseEntity<ErrorResponse>> handleEmailSendException(
@@ -166,6 +170,18 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error));
     }
 
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public Mono<ResponseEntity<ErrorResponse>> handleUpstreamUnavailableException(
+        Exception ex, ServerWebExchange exchange) {
+        log.warn("External service unavailable: {}", ex.getMessage());
+        ErrorResponse error = buildErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "External service is temporarily unavailable. Please try again later.",
+            exchange.getRequest().getPath().value()
+        );
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public Mono<ResponseEntity<ErrorResponse>> handleAccessDeniedException(
         AccessDeniedException ex, ServerWebExchange exchange) {
@@ -0,0 +1,41 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.Product;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ProductRepository extends R2dbcRepository<Product, Long> {
+
+    Flux<Product> findAllByOrderByIdAsc();
+
+    /**
+     * Inserts or updates all given products in one statement. The arrays are parallel:
+     * index i of each describes the same product. Null fields keep the stored value, so a
+     * partial update only changes the fields it carries; a product that is not stored yet
+     * and has no title is skipped.
+     */
+    @Modifying
+    @Query("INSERT INTO products (id, title, price, description, category, image, synced_at) "
+        + "SELECT p.id, COALESCE(p.title, cur.title), p.price, p.description, p.category, p.image, CURRENT_TIMESTAMP "
+        + "FROM unnest(:ids, :titles, :prices, :descriptions, :categories, :images) "
+        + "AS p(id, title, price, description, category, image) "
+        + "LEFT JOIN products cur ON cur.id = p.id "
+        + "WHERE COALESCE(p.title, cur.title) IS NOT NULL "
+        + "ON CONFLICT (id) DO UPDATE SET title = COALESCE(EXCLUDED.title, products.title), "
+        + "price = COALESCE(EXCLUDED.price, products.price), "
+        + "description = COALESCE(EXCLUDED.description, products.description), "
+        + "category = COALESCE(EXCLUDED.category, products.category), "
+        + "image = COALESCE(EXCLUDED.image, products.image), "
+        + "synced_at = EXCLUDED.synced_at")
+    Mono<Integer> upsertAll(Long[] ids, String[] titles, Double[] prices, String[] descriptions,
+                            String[] categories, String[] images);
+
+    @Modifying
+    @Query("DELETE FROM products WHERE id <> ALL(:ids)")
+    Mono<Integer> deleteByIdNotIn(Long[] ids);
+}
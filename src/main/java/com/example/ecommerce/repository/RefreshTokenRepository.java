@@ -1,11 +1,29 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken,Long> {
     Mono<Void> deleteByUserId(Long userId);
-    Mono<RefreshToken> findByToken(String token);
-    Mono<Void> deleteByToken(String token);
+    Mono<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the token as exchanged unless that already happened; 0 rows means it was reused.
+     */
+    @Modifying
+    @Query("UPDATE refresh_tokens SET used_at = :usedAt WHERE token_hash = :tokenHash AND used_at IS NULL")
+    Mono<Integer> markUsed(String tokenHash, LocalDateTime usedAt);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE family_id = :familyId")
+    Mono<Integer> deleteByFamilyId(String familyId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE expiry_date < :now")
+    Mono<Integer> deleteExpired(LocalDateTime now);
 }
@@ -1,13 +1,15 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.User;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface UserRepository extends R2dbcRepository<User, Long> {
+public interface UserRepository extends R2dbcRepository<User, Long>, UserRepositoryCustom {
     Mono<User> findByUsername(String username);
 
     Mono<User> findByEmail(String email);
@@ -18,4 +20,18 @@ public interface UserRepository extends R2dbcRepository<User, Long> {
 
     @Query("SELECT * FROM users WHERE username = :username OR email = :email")
     Mono<User> findByUsernameOrEmail(String username, String email);
+
+    /**
+     * Users created after {@code afterId} in id order, with only id, username and email loaded.
+     */
+    @Query("SELECT id, username, email FROM users WHERE id > :afterId ORDER BY id")
+    Flux<User> findLoginIdentifiersAfter(Long afterId);
+
+    /**
+     * Replaces the password hash only if it is still {@code currentPassword}, so a rehash never
+     * overwrites a password that was changed concurrently.
+     */
+    @Modifying
+    @Query("UPDATE users SET password = :newPassword WHERE id = :id AND password = :currentPassword")
+    Mono<Integer> updatePasswordIfUnchanged(Long id, String currentPassword, String newPassword);
 }
@@ -0,0 +1,22 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserWithRoles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads a user by username, falling back to email, together with their role names in one query.
+     */
+    Mono<UserWithRoles> findWithRolesByUsernameOrEmail(String usernameOrEmail);
+
+    Mono<UserWithRoles> findWithRolesById(Long userId);
+
+    /**
+     * Keyset scan over users ordered by id, starting after {@code afterId}. Null filters are ignored
+     * and a null limit streams every matching row.
+     */
+    Flux<User> findByFilter(Long afterId, Boolean enabled, Boolean emailVerified, String role, Integer limit);
+}
@@ -0,0 +1,100 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserWithRoles;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String SELECT_WITH_ROLES = """
+        SELECT u.*, COALESCE(array_agg(r.name) FILTER (WHERE r.name IS NOT NULL), '{}') AS roles
+        FROM users u
+        LEFT JOIN user_roles ur ON ur.user_id = u.id
+        LEFT JOIN roles r ON r.id = ur.role_id
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Override
+    public Mono<UserWithRoles> findWithRolesByUsernameOrEmail(String usernameOrEmail) {
+        // A username match wins over an email match, as with findByUsername then findByEmail
+        String query = SELECT_WITH_ROLES + """
+            WHERE u.username = :identifier OR u.email = :identifier
+            GROUP BY u.id
+            ORDER BY (u.username = :identifier) DESC
+            LIMIT 1
+            """;
+
+        return databaseClient.sql(query)
+            .bind("identifier", usernameOrEmail)
+            .map(this::toUserWithRoles)
+            .one();
+    }
+
+    @Override
+    public Mono<UserWithRoles> findWithRolesById(Long userId) {
+        String query = SELECT_WITH_ROLES + """
+            WHERE u.id = :userId
+            GROUP BY u.id
+            """;
+
+        return databaseClient.sql(query)
+            .bind("userId", userId)
+            .map(this::toUserWithRoles)
+            .one();
+    }
+
+    @Override
+    public Flux<User> findByFilter(Long afterId, Boolean enabled, Boolean emailVerified, String role, Integer limit) {
+        StringBuilder query = new StringBuilder("SELECT u.* FROM users u WHERE u.id > :afterId");
+        if (enabled != null) {
+            query.append(" AND u.is_enabled = :enabled");
+        }
+        if (emailVerified != null) {
+            query.append(" AND u.is_email_verified = :emailVerified");
+        }
+        if (role != null) {
+            query.append(" AND EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id")
+                .append(" WHERE ur.user_id = u.id AND r.name = :role)");
+        }
+        query.append(" ORDER BY u.id");
+        if (limit != null) {
+            query.append(" LIMIT :limit");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(query.toString())
+            .bind("afterId", afterId != null ? afterId : 0L);
+        if (enabled != null) {
+            spec = spec.bind("enabled", enabled);
+        }
+        if (emailVerified != null) {
+            spec = spec.bind("emailVerified", emailVerified);
+        }
+        if (role != null) {
+            spec = spec.bind("role", role);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+
+        return spec.map((row, metadata) -> converter.read(User.class, row, metadata))
+            .all();
+    }
+
+    private UserWithRoles toUserWithRoles(Row row, RowMetadata metadata) {
+        User user = converter.read(User.class, row, metadata);
+        String[] roles = row.get("roles", String[].class);
+        return new UserWithRoles(user, roles != null ? Arrays.asList(roles) : List.of());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.Role;
+import com.example.ecommerce.entity.UserRoleName;
 import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -34,6 +35,9 @@ public interface UserRoleRepository extends R2dbcRepository<Role, Long> {
     @Query("SELECT r.name FROM roles r JOIN user_roles ur ON r.id = ur.role_id WHERE ur.user_id = :userId")
     Flux<String> findRoleNamesByUserId(Long userId);
 
+    @Query("SELECT ur.user_id, r.name FROM roles r JOIN user_roles ur ON r.id = ur.role_id WHERE ur.user_id = ANY(:userIds)")
+    Flux<UserRoleName> findRoleNamesByUserIds(Long[] userIds);
+
     @Modifying
     @Query("INSERT INTO user_roles (user_id, role_id) SELECT :userId, id FROM roles WHERE name = 'ROLE_USER'")
     Mono<Void> assignDefaultRole(Long userId);
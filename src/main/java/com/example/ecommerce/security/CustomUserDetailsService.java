@@ -1,50 +1,77 @@
 package com.example.ecommerce.security;
+import com.example.ecommerce.entity.User;
 import com.example.ecommerce.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements ReactiveUserDetailsService {
 
     private final UserRepository userRepository;
-    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.user-details.max-size:10000}")
+    private Long cacheMaxSize;
+
+    @Value("${app.cache.user-details.ttl:300000}")
+    private Long cacheTtl;
+
+    /**
+     * Keyed by the identifier the user was looked up with (username or email).
+     * Concurrent misses for the same key share one in-flight load.
+     */
+    private AsyncCache<String, UserDetails> userDetailsCache;
+
+    @PostConstruct
+    void initCache() {
+        userDetailsCache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMillis(cacheTtl))
+            .recordStats()
+            .<String, UserDetails>buildAsync(), "userDetails");
+    }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository.findByUsername(username)
-            .switchIfEmpty(userRepository.findByEmail(username))
-            .flatMap(user -> getUserRoles(user.getId())
-                .collectList()
-                .map(roles -> new CustomUserDetails(
+        // Failed loads (including unknown users) complete exceptionally and are not cached
+        return Mono.fromFuture(() -> userDetailsCache.get(username, (key, executor) -> loadUser(key).toFuture()), true);
+    }
+
+    /**
+     * Drops cached details for a user whose status, roles or credentials changed.
+     */
+    public void evict(User user) {
+        userDetailsCache.synchronous().invalidate(user.getUsername());
+        userDetailsCache.synchronous().invalidate(user.getEmail());
+    }
+
+    private Mono<UserDetails> loadUser(String username) {
+        return userRepository.findWithRolesByUsernameOrEmail(username)
+            .map(userWithRoles -> {
+                User user = userWithRoles.getUser();
+                return new CustomUserDetails(
                     user.getId(),
                     user.getUsername(),
                     user.getEmail(),
                     user.getPassword(),
                     user.getIsEnabled(),
-                    roles
-                )))
+                    userWithRoles.getRoles()
+                );
+            })
             .cast(UserDetails.class)
             .switchIfEmpty(Mono.error(new UsernameNotFoundException("User not found: " + username)));
     }
-
-    private reactor.core.publisher.Flux<String> getUserRoles(Long userId) {
-        String query = """
-            SELECT r.name FROM roles r
-            JOIN user_roles ur ON r.id = ur.role_id
-            WHERE ur.user_id = :userId
-            """;
-
-        return databaseClient.sql(query)
-            .bind("userId", userId)
-            .map(row -> row.get("name", String.class))
-            .all();
-    }
-}
\ No newline at end of file
+}
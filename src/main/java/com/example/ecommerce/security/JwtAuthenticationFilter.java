@@ -1,10 +1,12 @@
 package com.example.ecommerce.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
@@ -12,21 +14,35 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter implements WebFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * When enabled, the principal is built from the signed token claims instead of
+     * being loaded from the database on every request.
+     */
+    @Value("${jwt.stateless-auth:false}")
+    private boolean statelessAuth;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = resolveToken(exchange.getRequest());
 
-        if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
-            String username = tokenProvider.getUsernameFromToken(token);
+        if (!StringUtils.hasText(token)) {
+            // If no token, proceed without authentication
+            return chain.filter(exchange);
+        }
 
-            return userDetailsService.findByUsername(username)
+        Optional<JwtClaims> claims = tokenProvider.verifyAndExtract(token);
+        if (claims.isPresent() && !isRevoked(claims.get())) {
+            return loadUserDetails(claims.get())
                 .flatMap(userDetails -> {
                     UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -40,10 +56,33 @@ public class JwtAuthenticationFilter implements WebFilter {
                 });
         }
 
-        // If no token, proceed without authentication
+        // Invalid or revoked token, proceed without authentication
         return chain.filter(exchange);
     }
 
+    private boolean isStateless(JwtClaims claims) {
+        // Tokens issued before the user id claim existed still need the database lookup
+        return statelessAuth && claims.userId() != null;
+    }
+
+    private boolean isRevoked(JwtClaims claims) {
+        return isStateless(claims) && tokenRevocationService.isRevoked(claims);
+    }
+
+    private Mono<UserDetails> loadUserDetails(JwtClaims claims) {
+        if (!isStateless(claims)) {
+            return userDetailsService.findByUsername(claims.subject());
+        }
+        return Mono.just(new CustomUserDetails(
+            claims.userId(),
+            claims.subject(),
+            null,
+            null,
+            true,
+            claims.roles()
+        ));
+    }
+
     private String resolveToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
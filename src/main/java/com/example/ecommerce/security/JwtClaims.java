@@ -0,0 +1,10 @@
+package com.example.ecommerce.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a verified JWT, extracted in the same pass as the signature check.
+ */
+public record JwtClaims(String subject, Long userId, List<String> roles, Instant issuedAt, Instant expiresAt) {
+}
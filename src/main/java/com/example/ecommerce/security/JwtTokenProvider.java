@@ -1,6 +1,7 @@
 package com.example.ecommerce.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -9,15 +10,33 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Issue time in epoch milliseconds; iat only has second precision, which is too coarse to
+     * tell a token issued right after a revocation from one issued just before it.
+     */
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -27,39 +46,98 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-token-expiration}")
     private Long refreshTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Current and previous signing keys. Swapped atomically on rotation so that
+     * tokens signed with the previous key stay valid until they expire.
+     */
+    private volatile SigningKeys signingKeys;
+
+    /**
+     * JwtParser is immutable and thread-safe, so one instance is shared by all requests.
+     * The key is resolved per token through the key locator, which keeps rotation working.
+     */
+    private final JwtParser jwtParser = Jwts.parser()
+        .keyLocator(this::locateKey)
+        .build();
+
+    @PostConstruct
+    void init() {
+        signingKeys = new SigningKeys(SigningKey.of(jwtSecret), null);
+    }
+
+    /**
+     * Replaces the signing key with one derived from the given secret. New tokens are
+     * signed with the new key; tokens signed with the replaced key are still accepted.
+     */
+    public synchronized void rotateSigningKey(String newSecret) {
+        SigningKey current = signingKeys.current();
+        signingKeys = new SigningKeys(SigningKey.of(newSecret), current);
+        log.info("JWT signing key rotated: {} -> {}", current.id(), signingKeys.current().id());
     }
 
     public String generateAccessToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", userDetails.getAuthorities().stream()
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
             .map(GrantedAuthority::getAuthority)
             .collect(Collectors.toList()));
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            claims.put(USER_ID_CLAIM, customUserDetails.getId());
+        }
+        long now = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS_CLAIM, now);
 
+        SigningKey key = signingKeys.current();
         return Jwts.builder()
+            .header().keyId(key.id()).and()
             .claims(claims)
             .subject(userDetails.getUsername())
-            .issuedAt(new Date())
-            .expiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
-            .signWith(getSigningKey())
+            .issuedAt(new Date(now))
+            .expiration(new Date(now + accessTokenExpiration))
+            .signWith(key.secretKey())
             .compact();
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
+        SigningKey key = signingKeys.current();
         return Jwts.builder()
+            .header().keyId(key.id()).and()
+            // Unique per token so rotations within the same second still get distinct digests
+            .id(UUID.randomUUID().toString())
             .subject(userDetails.getUsername())
             .issuedAt(new Date())
             .expiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
-            .signWith(getSigningKey())
+            .signWith(key.secretKey())
             .compact();
     }
 
+    /**
+     * Verifies the token signature and expiry and extracts its claims in a single parse.
+     * Returns an empty Optional when the token is invalid.
+     */
+    public Optional<JwtClaims> verifyAndExtract(String token) {
+        try {
+            Claims claims = jwtParser
+                .parseSignedClaims(token)
+                .getPayload();
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Number.class);
+            return Optional.of(new JwtClaims(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                extractRoles(claims),
+                issuedAtMillis != null
+                    ? Instant.ofEpochMilli(issuedAtMillis.longValue())
+                    : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("JWT validation error: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
+        Claims claims = jwtParser
             .parseSignedClaims(token)
             .getPayload();
         return claims.getSubject();
@@ -67,10 +145,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
+            jwtParser.parseSignedClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("JWT validation error: {}", e.getMessage());
@@ -81,4 +156,47 @@ public class JwtTokenProvider {
     public Long getAccessTokenExpiration() {
         return accessTokenExpiration;
     }
+
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+            .map(String::valueOf)
+            .toList();
+    }
+
+    private Key locateKey(Header header) {
+        SigningKeys keys = signingKeys;
+        String keyId = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        // Tokens issued before key ids were added carry no kid and were signed with the configured secret
+        if (keyId == null || keyId.equals(keys.current().id())) {
+            return keys.current().secretKey();
+        }
+        if (keys.previous() != null && keyId.equals(keys.previous().id())) {
+            return keys.previous().secretKey();
+        }
+        throw new UnsupportedJwtException("Unknown signing key id: " + keyId);
+    }
+
+    private record SigningKeys(SigningKey current, SigningKey previous) {
+    }
+
+    private record SigningKey(String id, SecretKey secretKey) {
+
+        static SigningKey of(String secret) {
+            byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            return new SigningKey(keyId(keyBytes), Keys.hmacShaKeyFor(keyBytes));
+        }
+
+        private static String keyId(byte[] keyBytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(keyBytes);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 11);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.cache.BloomFilter;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter over every username and email, used to answer logins for accounts that
+ * certainly do not exist without querying the database.
+ * <p>
+ * The filter is built from the users table at startup and rebuilt periodically, sized for
+ * the larger of the configured capacity and twice the current user count. Signups are added
+ * as they happen; users created on other instances are picked up by a frequent incremental
+ * scan by id. Ids are not committed in order, so each scan starts a window below the highest
+ * id seen by a scan. Until the first build completes, and whenever no scan has succeeded for
+ * two refresh intervals, every identifier is treated as possibly known.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginIdentifierFilter {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.login-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.login-filter.expected-insertions:100000}")
+    private Long expectedInsertions;
+
+    @Value("${app.login-filter.false-positive-rate:0.01}")
+    private Double falsePositiveRate;
+
+    @Value("${app.login-filter.rescan-overlap:1000}")
+    private Long rescanOverlap;
+
+    @Value("${app.login-filter.refresh-interval:5000}")
+    private Long refreshInterval;
+
+    private volatile BloomFilter current;
+
+    /**
+     * Filter under construction during a rebuild; signups are added to it as well so none
+     * is lost when it replaces {@link #current}.
+     */
+    private volatile BloomFilter building;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    /**
+     * Highest id seen by a scan. Local signups do not move it, since users with lower ids may
+     * still be committing on other instances.
+     */
+    private final AtomicLong lastUserId = new AtomicLong();
+
+    /**
+     * When the last rebuild or refresh scan completed, in epoch milliseconds.
+     */
+    private volatile long lastScanAt;
+    private Counter rejectedCounter;
+    private Counter falsePositiveCounter;
+
+    @PostConstruct
+    void init() {
+        rejectedCounter = meterRegistry.counter("login.identifier_filter.rejected");
+        falsePositiveCounter = meterRegistry.counter("login.identifier_filter.false_positive");
+        meterRegistry.gauge("login.identifier_filter.expected_fpp", this,
+            filter -> filter.current != null ? filter.current.expectedFalsePositiveRate() : Double.NaN);
+        meterRegistry.gauge("login.identifier_filter.elements", this,
+            filter -> filter.current != null ? filter.current.approximateElementCount() : Double.NaN);
+    }
+
+    /**
+     * False only if no user has {@code identifier} as username or email, as of a scan no older
+     * than two refresh intervals.
+     */
+    public boolean mightExist(String identifier) {
+        BloomFilter filter = current;
+        if (!enabled || filter == null || identifier == null || filter.mightContain(identifier)) {
+            return true;
+        }
+        // Refresh keeps failing: users created since are unknown to the filter, so ask the database
+        if (System.currentTimeMillis() - lastScanAt > 2 * refreshInterval) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Records that a lookup for an identifier the filter let through found no user.
+     */
+    public void recordMiss() {
+        if (enabled && current != null) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    public void add(User user) {
+        // Read building before current: a rebuild publishes current before clearing building
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        put(next, user);
+        put(filter, user);
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-filter.rebuild-interval:3600000}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        userRepository.count()
+            .flatMap(count -> {
+                BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, count * 2), falsePositiveRate);
+                building = next;
+                return userRepository.findLoginIdentifiersAfter(0L)
+                    .doOnNext(user -> {
+                        put(next, user);
+                        lastUserId.accumulateAndGet(user.getId(), Math::max);
+                    })
+                    .count()
+                    .doOnNext(users -> {
+                        current = next;
+                        lastScanAt = System.currentTimeMillis();
+                        log.info("Login identifier filter built: {} users, {} bits, {} hashes, expected fpp {}",
+                            users, next.bitSize(), next.hashFunctions(), String.format("%.5f", next.expectedFalsePositiveRate()));
+                    });
+            })
+            .doOnError(e -> log.warn("Login identifier filter rebuild failed: {}", e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .doFinally(signal -> {
+                building = null;
+                rebuilding.set(false);
+            })
+            .subscribe();
+    }
+
+    /**
+     * Adds users created since shortly before the last scan, including those that signed up on
+     * other instances. Users already in the filter are simply added again.
+     */
+    @Scheduled(fixedDelayString = "${app.login-filter.refresh-interval:5000}",
+        initialDelayString = "${app.login-filter.refresh-interval:5000}")
+    public void refresh() {
+        if (!enabled || current == null || rebuilding.get()) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        userRepository.findLoginIdentifiersAfter(Math.max(0, lastUserId.get() - rescanOverlap))
+            .doOnNext(user -> {
+                add(user);
+                lastUserId.accumulateAndGet(user.getId(), Math::max);
+            })
+            .doOnComplete(() -> lastScanAt = startedAt)
+            .doOnError(e -> log.warn("Login identifier filter refresh failed: {}", e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .subscribe();
+    }
+
+    private static void put(BloomFilter filter, User user) {
+        if (filter == null) {
+            return;
+        }
+        if (user.getUsername() != null) {
+            filter.put(user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            filter.put(user.getEmail());
+        }
+    }
+}
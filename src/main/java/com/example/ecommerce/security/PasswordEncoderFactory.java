@@ -0,0 +1,84 @@
+package com.example.ecommerce.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the application's {@link DelegatingPasswordEncoder}. New hashes are written with an
+ * {@code {id}} prefix naming the algorithm, so the algorithm or its cost can change per
+ * deployment while existing hashes keep matching and get upgraded on the next login.
+ * Hashes stored before the prefix was introduced are plain BCrypt and are matched as such.
+ */
+@Slf4j
+public final class PasswordEncoderFactory {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    /**
+     * Spring's default cost; calibration never goes below it.
+     */
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private PasswordEncoderFactory() {
+    }
+
+    /**
+     * @param algorithm   id used for new hashes, {@code bcrypt} or {@code argon2}
+     * @param strength    BCrypt cost factor; 0 calibrates it against {@code targetTime}
+     * @param targetTime  hash time budget used by the calibration
+     */
+    public static PasswordEncoder create(String algorithm, int strength, Duration targetTime) {
+        int bcryptStrength = strength > 0 ? strength : calibrateBCryptStrength(targetTime);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        // Argon2 needs BouncyCastle at runtime; without it, argon2 hashes cannot be written or read
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", null)) {
+            encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Password hashing algorithm '" + algorithm + "' is not available");
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        log.info("Password hashing: {} (bcrypt strength {})", algorithm, bcryptStrength);
+        return encoder;
+    }
+
+    /**
+     * Highest BCrypt strength whose hash time on this machine stays within {@code targetTime}.
+     * Each step doubles the work, so one measurement at the minimum strength is extrapolated.
+     */
+    static int calibrateBCryptStrength(Duration targetTime) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        // First call warms up the JIT and is not counted
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double headroom = (double) targetTime.toNanos() / best;
+        int extra = headroom >= 2 ? (int) (Math.log(headroom) / Math.log(2)) : 0;
+        int strength = Math.min(MIN_BCRYPT_STRENGTH + extra, MAX_BCRYPT_STRENGTH);
+        log.info("BCrypt strength {} takes {} ms here; calibrated to {} for a {} ms budget",
+            MIN_BCRYPT_STRENGTH, best / 1_000_000, strength, targetTime.toMillis());
+        return strength;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing and matching on a dedicated, bounded thread pool instead of the
+ * Netty event loop. Each BCrypt call costs tens of milliseconds of CPU; when all threads are
+ * busy and the queue is full, calls fail fast with a 503 instead of piling up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Hashing is CPU bound, so more threads than cores only adds contention. 0 means one per core.
+     */
+    @Value("${app.password-hashing.threads:0}")
+    private Integer threads;
+
+    @Value("${app.password-hashing.queue-capacity:100}")
+    private Integer queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Scheduler scheduler;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        // Exposes executor.queued, executor.active and friends tagged name=password-hash
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hash");
+        scheduler = Schedulers.fromExecutorService(executor, "password-hash");
+        encodeTimer = meterRegistry.timer("password.hash", "operation", "encode");
+        matchesTimer = meterRegistry.timer("password.hash", "operation", "matches");
+        log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return offload(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Whether {@code encodedPassword} was written with an older algorithm or a lower cost than
+     * is configured now and should be re-encoded. Only parses the hash, so it runs inline.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> Mono<T> offload(Timer timer, Callable<T> task) {
+        return Mono.fromCallable(() -> timer.recordCallable(task))
+            .subscribeOn(scheduler)
+            .onErrorMap(RejectedExecutionException.class, e -> {
+                meterRegistry.counter("password.hash.rejected").increment();
+                return new ServiceUnavailableException("Server is busy. Please try again later.", e);
+            });
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.dto.response.ErrorResponse;
+import com.example.ecommerce.exception.RateLimitExceededException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applies the per-IP endpoint limits ahead of security, body decoding and the controllers,
+ * so a rejected request costs one map lookup and a CAS. Rejections are written directly
+ * because exceptions from web filters do not reach {@code GlobalExceptionHandler}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RateLimitFilter implements WebFilter {
+
+    private final RateLimitService rateLimitService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST) {
+            return chain.filter(exchange);
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        return rateLimitService.checkEndpoint(path, RateLimitService.clientIp(request))
+            .map(e -> reject(exchange, path, e))
+            .orElseGet(() -> chain.filter(exchange));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String path, RateLimitExceededException e) {
+        log.warn("Rate limit exceeded on {} for {}", path, RateLimitService.clientIp(exchange.getRequest()));
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        ErrorResponse error = ErrorResponse.builder()
+            .status(HttpStatus.TOO_MANY_REQUESTS.value())
+            .message(e.getMessage())
+            .timestamp(LocalDateTime.now())
+            .path(path)
+            .build();
+        try {
+            DataBuffer body = response.bufferFactory().wrap(objectMapper.writeValueAsBytes(error));
+            return response.writeWith(Mono.just(body));
+        } catch (JsonProcessingException ex) {
+            return response.setComplete();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.config.RateLimitProperties;
+import com.example.ecommerce.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the unauthenticated auth endpoints so that floods of login, signup and
+ * password-reset requests are turned away before they cost a database query or a password
+ * hash. Requests are limited per client IP and endpoint, and failed logins additionally per
+ * account and client IP, so password guessing against one account is slowed while its owner
+ * can still sign in from their own address.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitService {
+
+    private static final String ACCOUNT = "account";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Limiter per request path, built from the configured endpoints.
+     */
+    private final Map<String, Limited> endpointLimiters = new HashMap<>();
+    private Limited accountLimiter;
+
+    @PostConstruct
+    void init() {
+        properties.getEndpoints().forEach((name, limit) ->
+            endpointLimiters.put(limit.getPath(), limited(name, limit)));
+        accountLimiter = limited(ACCOUNT, properties.getAccount());
+        log.info("Rate limiting {}: {} endpoints, account limit {} per {} ms",
+            properties.isEnabled() ? "enabled" : "disabled", endpointLimiters.size(),
+            properties.getAccount().getCapacity(), properties.getAccount().getPeriod());
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.expiry-interval:1000}")
+    public void expireIdleBuckets() {
+        endpointLimiters.values().forEach(limited -> limited.limiter().expire());
+        accountLimiter.limiter().expire();
+    }
+
+    /**
+     * Takes a token for {@code clientIp} on the endpoint at {@code path}.
+     *
+     * @return the exception to answer with if the client is over its limit
+     */
+    public Optional<RateLimitExceededException> checkEndpoint(String path, String clientIp) {
+        Limited limited = endpointLimiters.get(path);
+        if (!properties.isEnabled() || limited == null) {
+            return Optional.empty();
+        }
+        return limited.check(clientIp);
+    }
+
+    /**
+     * Fails with {@link RateLimitExceededException} if {@code clientIp} has used up its failed
+     * logins for the account named by {@code usernameOrEmail}. Takes no token.
+     */
+    public Mono<Void> checkAccount(String usernameOrEmail, String clientIp) {
+        return Mono.defer(() -> {
+            if (!properties.isEnabled() || usernameOrEmail == null) {
+                return Mono.empty();
+            }
+            return accountLimiter.peek(accountKey(usernameOrEmail, clientIp))
+                .<Mono<Void>>map(Mono::error)
+                .orElseGet(Mono::empty);
+        });
+    }
+
+    /**
+     * Takes a token for the account named by {@code usernameOrEmail} from {@code clientIp}
+     * after a failed login.
+     */
+    public void recordFailedLogin(String usernameOrEmail, String clientIp) {
+        if (properties.isEnabled() && usernameOrEmail != null) {
+            accountLimiter.limiter().tryAcquire(accountKey(usernameOrEmail, clientIp));
+        }
+    }
+
+    /**
+     * Remote address of the connection. Behind a proxy this is only the client's address when
+     * forwarded headers are applied (server.forward-headers-strategy).
+     */
+    public static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    private static String accountKey(String usernameOrEmail, String clientIp) {
+        return usernameOrEmail.trim().toLowerCase(Locale.ROOT) + '|' + clientIp;
+    }
+
+    private Limited limited(String name, RateLimitProperties.Limit limit) {
+        RateLimiter limiter = new RateLimiter(limit.getCapacity(), Duration.ofMillis(limit.getPeriod()));
+        Tags tags = Tags.of("limit", name);
+        meterRegistry.gauge("auth.rate_limit.keys", tags, limiter, RateLimiter::size);
+        return new Limited(limiter, meterRegistry.counter("auth.rate_limit.rejected", tags));
+    }
+
+    private record Limited(RateLimiter limiter, Counter rejected) {
+
+        Optional<RateLimitExceededException> check(String key) {
+            return rejectIfWaiting(limiter.tryAcquire(key));
+        }
+
+        Optional<RateLimitExceededException> peek(String key) {
+            return rejectIfWaiting(limiter.peek(key));
+        }
+
+        private Optional<RateLimitExceededException> rejectIfWaiting(long waitNanos) {
+            if (waitNanos == 0) {
+                return Optional.empty();
+            }
+            rejected.increment();
+            long retryAfter = Math.max(1, (long) Math.ceil((double) waitNanos / TimeUnit.SECONDS.toNanos(1)));
+            return Optional.of(new RateLimitExceededException("Too many requests. Please try again later.", retryAfter));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ecommerce.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token bucket: each key may spend up to {@code capacity} requests at once, and the
+ * bucket refills completely over {@code period}.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the GCRA form of a token bucket), so acquiring is one CAS with no locks. A full bucket
+ * carries no state, so idle keys are dropped by {@link #expire()}, which walks a hashed time
+ * wheel of keys bucketed by when they become full instead of scanning every key.
+ */
+public final class RateLimiter {
+
+    private static final int WHEEL_SLOTS = 64;
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final long tick;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Set<String>[] wheel;
+    private long sweptTick;
+
+    public RateLimiter(int capacity, Duration period) {
+        this(capacity, period, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    RateLimiter(int capacity, Duration period, LongSupplier clock) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+        this.emissionInterval = Math.max(1, period.toNanos() / capacity);
+        this.burstTolerance = emissionInterval * (capacity - 1);
+        // One turn of the wheel, less a slot, covers the longest time a bucket can take to refill
+        this.tick = Math.max(1, (burstTolerance + emissionInterval) / (WHEEL_SLOTS - 2) + 1);
+        this.clock = clock;
+        this.wheel = (Set<String>[]) new Set<?>[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.sweptTick = Math.floorDiv(clock.getAsLong(), tick);
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+                schedule(key, now + emissionInterval);
+            }
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long wait = start - now - burstTolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks {@code key} without taking a token.
+     *
+     * @return 0 if a token is available, otherwise the nanoseconds until one is
+     */
+    public long peek(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        return Math.max(0, Math.max(bucket.get(), now) - now - burstTolerance);
+    }
+
+    /**
+     * Drops buckets that have refilled completely. A request racing with the removal may
+     * spend a token from the dropped bucket, which at worst allows one extra request.
+     */
+    public synchronized void expire() {
+        long now = clock.getAsLong();
+        long currentTick = Math.floorDiv(now, tick);
+        List<String> pending = new ArrayList<>();
+        // After a long pause every slot is due, but each only needs one visit
+        for (long t = Math.max(sweptTick + 1, currentTick - WHEEL_SLOTS + 1); t <= currentTick; t++) {
+            Set<String> slot = wheel[slot(t)];
+            for (String key : slot) {
+                slot.remove(key);
+                AtomicLong bucket = buckets.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                if (bucket.get() <= now) {
+                    buckets.remove(key, bucket);
+                } else {
+                    pending.add(key);
+                }
+            }
+        }
+        // Still refilling; rescheduled once the due slots are drained so none is visited twice
+        for (String key : pending) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                wheel[slot(Math.max(Math.floorDiv(bucket.get(), tick), currentTick + 1))].add(key);
+            }
+        }
+        sweptTick = currentTick;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void schedule(String key, long fullAt) {
+        wheel[slot(Math.floorDiv(fullAt, tick))].add(key);
+    }
+
+    private static int slot(long tickIndex) {
+        return (int) Math.floorMod(tickIndex, (long) WHEEL_SLOTS);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ecommerce.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation list for stateless authentication. Revoking a user invalidates
+ * every access token issued to them up to that moment; entries are dropped once all
+ * tokens they could apply to have expired.
+ */
+@Slf4j
+@Component
+public class TokenRevocationService {
+
+    private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    public void revokeUser(Long userId) {
+        // Tokens carry their issue time in milliseconds, so one issued right after this call
+        // (e.g. logging in with the new password) is not caught by the revocation
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        revokedBefore.put(userId, now);
+        purgeExpired(now);
+        log.debug("Revoked access tokens for user {} issued up to {}", userId, now);
+    }
+
+    /**
+     * Tokens without a millisecond issue time fall back to iat, truncated to the second, and
+     * stay revoked when issued in the same second as the revocation.
+     */
+    public boolean isRevoked(JwtClaims claims) {
+        Instant revokedAt = revokedBefore.get(claims.userId());
+        return revokedAt != null && !claims.issuedAt().isAfter(revokedAt);
+    }
+
+    private void purgeExpired(Instant now) {
+        Instant cutoff = now.minusMillis(accessTokenExpiration);
+        revokedBefore.values().removeIf(revokedAt -> revokedAt.isBefore(cutoff));
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.ecommerce.service;
 import com.example.ecommerce.dto.response.MessageResponse;
+import com.example.ecommerce.dto.response.UserPageResponse;
 import com.example.ecommerce.dto.response.UserResponse;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserRoleName;
 import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.repository.UserRepository;
 import com.example.ecommerce.repository.UserRoleRepository;
+import com.example.ecommerce.security.CustomUserDetailsService;
+import com.example.ecommerce.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Service
@@ -20,20 +28,49 @@ public class AdminService {
 
     private final UserRepository userRepository;
     private final UserRoleRepository roleRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomUserDetailsService userDetailsService;
 
-    public Flux<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-            .flatMap(user -> roleRepository.findRoleNamesByUserId(user.getId())
-                .collectList()
-                .map(roles -> UserResponse.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .email(user.getEmail())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .isEmailVerified(user.getIsEmailVerified())
-                    .roles(roles)
-                    .build()));
+    @Value("${app.admin.role-batch-size:500}")
+    private Integer roleBatchSize;
+
+    @Value("${app.admin.role-batch-concurrency:2}")
+    private Integer roleBatchConcurrency;
+
+    @Value("${app.admin.default-page-size:50}")
+    private Integer defaultPageSize;
+
+    @Value("${app.admin.max-page-size:200}")
+    private Integer maxPageSize;
+
+    public Mono<UserPageResponse> getUsers(Long afterId, Integer size, Boolean enabled, Boolean emailVerified, String role) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+
+        // Fetch one extra row to know whether another page follows
+        return userRepository.findByFilter(afterId, enabled, emailVerified, withRolePrefix(role), pageSize + 1)
+            .collectList()
+            .flatMap(users -> {
+                boolean hasMore = users.size() > pageSize;
+                List<User> page = hasMore ? users.subList(0, pageSize) : users;
+                Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+                return withRoles(page)
+                    .collectList()
+                    .map(responses -> UserPageResponse.builder()
+                        .users(responses)
+                        .size(responses.size())
+                        .nextCursor(nextCursor)
+                        .build());
+            });
+    }
+
+    /**
+     * Streams every matching user in id order. Rows are pulled from R2DBC on demand and
+     * roles are joined per chunk, so the full list is never held in memory.
+     */
+    public Flux<UserResponse> exportUsers(Boolean enabled, Boolean emailVerified, String role) {
+        return userRepository.findByFilter(null, enabled, emailVerified, withRolePrefix(role), null)
+            .buffer(roleBatchSize)
+            .flatMapSequential(this::withRoles, roleBatchConcurrency);
     }
 
     public Mono<UserResponse> getUserById(Long userId) {
@@ -65,6 +102,7 @@ public class AdminService {
                             return Mono.<MessageResponse>error(new BadRequestException("User already has this role"));
                         }
                         return roleRepository.insertUserRole(userId, role.getId())
+                                .doOnSuccess(v -> onUserChanged(user))
                                 .thenReturn(new MessageResponse("Role assigned successfully"));
                     })));
     }
@@ -78,6 +116,7 @@ public class AdminService {
             .flatMap(user -> roleRepository.findByName(roleNameWithPrefix)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Role not found: " + roleNameWithPrefix)))
                 .flatMap(role -> roleRepository.deleteByUserIdAndRoleId(userId, role.getId())
+                    .doOnSuccess(v -> onUserChanged(user))
                     .thenReturn(new MessageResponse("Role removed successfully"))));
     }
 
@@ -89,7 +128,44 @@ public class AdminService {
                 user.setUpdatedAt(LocalDateTime.now());
                 return userRepository.save(user);
             })
+            .doOnNext(this::onUserChanged)
             .map(user -> new MessageResponse(
                 "User " + (user.getIsEnabled() ? "enabled" : "disabled") + " successfully"));
     }
+
+    /**
+     * Loads the roles of a whole chunk of users with one query and joins them in memory.
+     */
+    private Flux<UserResponse> withRoles(List<User> users) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+        Long[] userIds = users.stream().map(User::getId).toArray(Long[]::new);
+
+        return roleRepository.findRoleNamesByUserIds(userIds)
+            .collectMultimap(UserRoleName::getUserId, UserRoleName::getName)
+            .flatMapIterable(rolesByUserId -> users.stream()
+                .map(user -> UserResponse.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .isEmailVerified(user.getIsEmailVerified())
+                    .roles(new ArrayList<>(rolesByUserId.getOrDefault(user.getId(), List.of())))
+                    .build())
+                .toList());
+    }
+
+    private String withRolePrefix(String roleName) {
+        if (roleName == null || roleName.isBlank()) {
+            return null;
+        }
+        return roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
+    }
+
+    private void onUserChanged(User user) {
+        userDetailsService.evict(user);
+        tokenRevocationService.revokeUser(user.getId());
+    }
 }
@@ -4,20 +4,27 @@ import com.example.ecommerce.dto.response.AuthResponse;
 import com.example.ecommerce.dto.response.MessageResponse;
 import com.example.ecommerce.dto.response.UserResponse;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserWithRoles;
 import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.exception.ServiceUnavailableException;
 import com.example.ecommerce.exception.UnauthorizedException;
 import com.example.ecommerce.repository.UserRepository;
 import com.example.ecommerce.repository.UserRoleRepository;
 import com.example.ecommerce.security.CustomUserDetails;
+import com.example.ecommerce.security.CustomUserDetailsService;
 import com.example.ecommerce.security.JwtTokenProvider;
+import com.example.ecommerce.security.LoginIdentifierFilter;
+import com.example.ecommerce.security.PasswordHashingService;
+import com.example.ecommerce.security.RateLimitService;
+import com.example.ecommerce.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -27,11 +34,15 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider tokenProvider;
     private final RefreshTokenService refreshTokenService;
     private final VerificationTokenService verificationTokenService;
     private final EmailService emailService;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomUserDetailsService userDetailsService;
+    private final RateLimitService rateLimitService;
+    private final LoginIdentifierFilter loginIdentifierFilter;
 
     public Mono<MessageResponse> signup(SignupRequest request) {
         return userRepository.existsByUsername(request.getUsername())
@@ -45,11 +56,13 @@ public class AuthService {
                 if (exists) {
                     return Mono.error(new BadRequestException("Email already exists"));
                 }
-
+                return passwordHashingService.encode(request.getPassword());
+            })
+            .flatMap(encodedPassword -> {
                 User user = User.builder()
                     .username(request.getUsername())
                     .email(request.getEmail())
-                    .password(passwordEncoder.encode(request.getPassword()))
+                    .password(encodedPassword)
                     .firstName(request.getFirstName())
                     .lastName(request.getLastName())
                     .isEnabled(true)
@@ -60,12 +73,13 @@ public class AuthService {
 
                 return userRepository.save(user);
             })
+            .doOnNext(loginIdentifierFilter::add)
             .flatMap(savedUser -> userRoleRepository.assignDefaultRole(savedUser.getId())
                 .then(verificationTokenService.createVerificationToken(savedUser, "EMAIL_VERIFICATION"))
                 .flatMap(token -> emailService.sendVerificationEmail(savedUser.getEmail(), token))
                 .thenReturn(new MessageResponse("User registered successfully. Please check your email to verify your account.")))
             .onErrorResume(e -> {
-                if (e instanceof BadRequestException) {
+                if (e instanceof BadRequestException || e instanceof ServiceUnavailableException) {
                     return Mono.error(e);
                 }
                 log.error("Error during signup", e);
@@ -73,93 +87,139 @@ public class AuthService {
             });
     }
 
-    public Mono<AuthResponse> login(LoginRequest request) {
-        return userRepository.findByUsername(request.getUsernameOrEmail())
-            .switchIfEmpty(userRepository.findByEmail(request.getUsernameOrEmail()))
-            .switchIfEmpty(Mono.error(new UnauthorizedException("Invalid credentials")))
-            .flatMap(user -> {
-                if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                    return Mono.error(new UnauthorizedException("Invalid credentials"));
-                }
+    public Mono<AuthResponse> login(LoginRequest request, String clientIp) {
+        // Clients over their failed-login limit for the account are refused before the lookup and the password hash
+        return rateLimitService.checkAccount(request.getUsernameOrEmail(), clientIp)
+            .then(Mono.defer(() -> findLoginUser(request.getUsernameOrEmail())))
+            .switchIfEmpty(Mono.defer(() -> invalidCredentials(request, clientIp)))
+            .flatMap(userWithRoles -> passwordHashingService.matches(request.getPassword(), userWithRoles.getUser().getPassword())
+                .flatMap(matches -> matches
+                    ? Mono.just(userWithRoles)
+                    : invalidCredentials(request, clientIp)))
+            .flatMap(userWithRoles -> {
+                User user = userWithRoles.getUser();
+                List<String> roles = userWithRoles.getRoles();
                 if (!user.getIsEnabled()) {
                     return Mono.error(new UnauthorizedException("Account is disabled"));
                 }
-                return userRoleRepository.findRoleNamesByUserId(user.getId())
-                    .collectList()
-                    .flatMap(roles -> {
-                        CustomUserDetails userDetails = new CustomUserDetails(
-                            user.getId(),
-                            user.getUsername(),
-                            user.getEmail(),
-                            user.getPassword(),
-                            user.getIsEnabled(),
-                            roles
-                        );
-
-                        String accessToken = tokenProvider.generateAccessToken(userDetails);
-                        String refreshToken = tokenProvider.generateRefreshToken(userDetails);
-
-                        return refreshTokenService.saveRefreshToken(user.getId(), refreshToken)
-                            .then(Mono.just(AuthResponse.builder()
-                                .accessToken(accessToken)
-                                .refreshToken(refreshToken)
-                                .tokenType("Bearer")
-                                .expiresIn(tokenProvider.getAccessTokenExpiration())
-                                .user(UserResponse.builder()
-                                    .id(user.getId())
-                                    .username(user.getUsername())
-                                    .email(user.getEmail())
-                                    .firstName(user.getFirstName())
-                                    .lastName(user.getLastName())
-                                    .isEmailVerified(user.getIsEmailVerified())
-                                    .roles(roles)
-                                    .build())
-                                .build()));
-                    });
+                CustomUserDetails userDetails = new CustomUserDetails(
+                    user.getId(),
+                    user.getUsername(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    user.getIsEnabled(),
+                    roles
+                );
+
+                String accessToken = tokenProvider.generateAccessToken(userDetails);
+                String refreshToken = tokenProvider.generateRefreshToken(userDetails);
+
+                // Detached: the upgrade costs a second full hash the response should not wait for
+                rehashIfOutdated(user, request.getPassword()).subscribe();
+                return refreshTokenService.saveRefreshToken(user.getId(), refreshToken)
+                    .then(Mono.just(AuthResponse.builder()
+                        .accessToken(accessToken)
+                        .refreshToken(refreshToken)
+                        .tokenType("Bearer")
+                        .expiresIn(tokenProvider.getAccessTokenExpiration())
+                        .user(UserResponse.builder()
+                            .id(user.getId())
+                            .username(user.getUsername())
+                            .email(user.getEmail())
+                            .firstName(user.getFirstName())
+                            .lastName(user.getLastName())
+                            .isEmailVerified(user.getIsEmailVerified())
+                            .roles(roles)
+                            .build())
+                        .build()));
             });
     }
 
-    public Mono<AuthResponse> refreshToken(RefreshTokenRequest request) {
-        return refreshTokenService.findByToken(request.getRefreshToken())
-            .switchIfEmpty(Mono.error(new UnauthorizedException("Invalid refresh token")))
-            .flatMap(refreshToken -> {
-                if (refreshToken.getExpiryDate().isBefore(LocalDateTime.now())) {
-                    return refreshTokenService.deleteByToken(request.getRefreshToken())
-                        .then(Mono.error(new UnauthorizedException("Refresh token expired")));
+    /**
+     * Identifiers the filter knows do not exist are answered without a query.
+     */
+    private Mono<UserWithRoles> findLoginUser(String usernameOrEmail) {
+        if (!loginIdentifierFilter.mightExist(usernameOrEmail)) {
+            return Mono.empty();
+        }
+        return userRepository.findWithRolesByUsernameOrEmail(usernameOrEmail)
+            .switchIfEmpty(Mono.fromRunnable(loginIdentifierFilter::recordMiss));
+    }
+
+    /**
+     * Failed attempts count towards the limit of the client that made them, so guessing at an
+     * account from one address does not lock out its owner elsewhere.
+     */
+    private <T> Mono<T> invalidCredentials(LoginRequest request, String clientIp) {
+        rateLimitService.recordFailedLogin(request.getUsernameOrEmail(), clientIp);
+        return Mono.error(new UnauthorizedException("Invalid credentials"));
+    }
+
+    /**
+     * After a successful login the raw password is at hand, so a hash written with an older
+     * algorithm or cost is replaced with one using the current settings. Runs detached from the
+     * login; failures are logged and only delay the upgrade to a later login.
+     */
+    private Mono<Void> rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordHashingService.upgradeEncoding(user.getPassword())) {
+            return Mono.empty();
+        }
+        return passwordHashingService.encode(rawPassword)
+            .flatMap(encodedPassword -> userRepository.updatePasswordIfUnchanged(user.getId(), user.getPassword(), encodedPassword))
+            .doOnNext(updated -> {
+                if (updated > 0) {
+                    log.info("Upgraded password hash for user {}", user.getId());
+                    userDetailsService.evict(user);
                 }
+            })
+            .onErrorResume(e -> {
+                log.warn("Password hash upgrade failed for user {}: {}", user.getId(), e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
 
-                return userRepository.findById(refreshToken.getUserId())
-                    .flatMap(user -> userRoleRepository.findRoleNamesByUserId(user.getId())
-                        .collectList()
-                        .map(roles -> {
-                            CustomUserDetails userDetails = new CustomUserDetails(
-                                user.getId(),
-                                user.getUsername(),
-                                user.getEmail(),
-                                user.getPassword(),
-                                user.getIsEnabled(),
-                                roles
-                            );
-
-                            String newAccessToken = tokenProvider.generateAccessToken(userDetails);
-
-                            return AuthResponse.builder()
-                                .accessToken(newAccessToken)
-                                .refreshToken(refreshToken.getToken())
-                                .tokenType("Bearer")
-                                .expiresIn(tokenProvider.getAccessTokenExpiration())
-                                .user(UserResponse.builder()
-                                    .id(user.getId())
-                                    .username(user.getUsername())
-                                    .email(user.getEmail())
-                                    .firstName(user.getFirstName())
-                                    .lastName(user.getLastName())
-                                    .isEmailVerified(user.getIsEmailVerified())
-                                    .roles(roles)
-                                    .build())
-                                .build();
-                        }));
-            });
+    public Mono<AuthResponse> refreshToken(RefreshTokenRequest request) {
+        // Forged or garbled tokens fail the signature check without a lookup
+        if (!tokenProvider.validateToken(request.getRefreshToken())) {
+            return Mono.error(new UnauthorizedException("Invalid refresh token"));
+        }
+        return refreshTokenService.validate(request.getRefreshToken())
+            .flatMap(refreshToken -> userRepository.findWithRolesById(refreshToken.getUserId())
+                .filter(userWithRoles -> userWithRoles.getUser().getIsEnabled())
+                .switchIfEmpty(Mono.error(new UnauthorizedException("Account is disabled")))
+                .flatMap(userWithRoles -> {
+                    User user = userWithRoles.getUser();
+                    List<String> roles = userWithRoles.getRoles();
+                    CustomUserDetails userDetails = new CustomUserDetails(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getEmail(),
+                        user.getPassword(),
+                        user.getIsEnabled(),
+                        roles
+                    );
+
+                    String newAccessToken = tokenProvider.generateAccessToken(userDetails);
+                    String newRefreshToken = tokenProvider.generateRefreshToken(userDetails);
+
+                    return refreshTokenService.rotate(refreshToken, newRefreshToken)
+                        .thenReturn(AuthResponse.builder()
+                            .accessToken(newAccessToken)
+                            .refreshToken(newRefreshToken)
+                            .tokenType("Bearer")
+                            .expiresIn(tokenProvider.getAccessTokenExpiration())
+                            .user(UserResponse.builder()
+                                .id(user.getId())
+                                .username(user.getUsername())
+                                .email(user.getEmail())
+                                .firstName(user.getFirstName())
+                                .lastName(user.getLastName())
+                                .isEmailVerified(user.getIsEmailVerified())
+                                .roles(roles)
+                                .build())
+                            .build());
+                }));
     }
 
     public Mono<MessageResponse> verifyEmail(VerifyEmailRequest request) {
@@ -198,11 +258,17 @@ public class AuthService {
                 }
 
                 return userRepository.findById(token.getUserId())
-                    .flatMap(user -> {
-                        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-                        user.setUpdatedAt(LocalDateTime.now());
-                        return userRepository.save(user);
+                    .flatMap(user -> passwordHashingService.encode(request.getNewPassword())
+                        .flatMap(encodedPassword -> {
+                            user.setPassword(encodedPassword);
+                            user.setUpdatedAt(LocalDateTime.now());
+                            return userRepository.save(user);
+                        }))
+                    .doOnNext(user -> {
+                        userDetailsService.evict(user);
+                        tokenRevocationService.revokeUser(user.getId());
                     })
+                    .then(refreshTokenService.deleteByUserId(token.getUserId()))
                     .then(verificationTokenService.deleteByUserId(token.getUserId()))
                     .thenReturn(new MessageResponse("Password reset successfully"));
             });
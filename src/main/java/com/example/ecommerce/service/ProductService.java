@@ -1,121 +1,331 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.ReactiveCache;
+import com.example.ecommerce.catalog.ProductCatalog;
 import com.example.ecommerce.dto.request.CreateProductRequest;
+import com.example.ecommerce.dto.request.ProductPayload;
 import com.example.ecommerce.dto.request.UpdateProductRequest;
+import com.example.ecommerce.dto.response.ProductBatchItem;
+import com.example.ecommerce.dto.response.ProductBatchResponse;
 import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final String CATALOG_KEY = "catalog";
+
     private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final UpstreamResilience upstreamResilience;
+    private final ObjectMapper objectMapper;
+    private final ProductRepository productRepository;
+    private final ProductSyncService productSyncService;
 
     @Value("${fakestore.api.base-url}")
     private String fakeStoreBaseUrl;
 
-    public Flux<ProductDTO> getAllProducts(Integer limit, String sort) {
-        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(fakeStoreBaseUrl + "/products");
-        if (limit != null && limit > 0) {
-            uriBuilder.queryParam("limit", limit);
-        }
-        if (sort != null && !sort.isBlank()) {
-            uriBuilder.queryParam("sort", sort); // "desc" or "asc"
-        }
+    @Value("${app.cache.products.max-size:1000}")
+    private Long cacheMaxSize;
 
-        return webClient.get()
-            .uri(uriBuilder.toUriString())
-            .retrieve()
-            .bodyToFlux(ProductDTO.class)
-            .doOnError(e -> log.error("Error fetching products", e));
-    }
-
-    public Mono<Object> addProduct(CreateProductRequest request) {
-        Map<String, Object> productData = new HashMap<>();
-        productData.put("title", request.getTitle());
-        productData.put("price", request.getPrice());
-        productData.put("description", request.getDescription());
-        productData.put("category", request.getCategory());
-        productData.put("image", request.getImage());
-
-        return webClient.post()
-            .uri(fakeStoreBaseUrl + "/products")
-            .bodyValue(productData)
-            .retrieve()
-            .bodyToMono(Object.class)
-            .doOnSuccess(product -> log.info("Product created successfully"))
-            .doOnError(e -> log.error("Error creating product", e));
+    @Value("${app.cache.products.max-stale:3600000}")
+    private Long cacheMaxStale;
+
+    @Value("${app.cache.products.by-id-ttl:300000}")
+    private Long productByIdTtl;
+
+    @Value("${app.catalog.refresh-interval:300000}")
+    private Long catalogRefreshInterval;
+
+    @Value("${app.catalog.batch-concurrency:8}")
+    private Integer batchConcurrency;
+
+    @Value("${app.catalog.search.default-limit:20}")
+    private Integer searchDefaultLimit;
+
+    @Value("${app.catalog.search.max-limit:100}")
+    private Integer searchMaxLimit;
+
+    /**
+     * Single entry holding the whole catalog snapshot, loaded from the local products table;
+     * all product reads are answered from it.
+     */
+    private ReactiveCache<String, ProductCatalog> catalogCache;
+
+    /**
+     * Products that are not part of the snapshot are fetched individually.
+     */
+    private ReactiveCache<Long, ProductDTO> productByIdCache;
+
+    /**
+     * Last successfully loaded catalog, served when the database is unavailable.
+     */
+    private volatile ProductCatalog lastCatalog;
+
+    private Counter catalogFallbackCounter;
+
+    /**
+     * Resolved once so product writes skip per-call type lookup and generic map handling.
+     */
+    private ObjectWriter productPayloadWriter;
+    private ObjectReader productReader;
+
+    @PostConstruct
+    void initCaches() {
+        productPayloadWriter = objectMapper.writerFor(ProductPayload.class);
+        productReader = objectMapper.readerFor(ProductDTO.class);
+        catalogFallbackCounter = meterRegistry.counter("products.catalog.fallback");
+        catalogCache = new ReactiveCache<>("products.catalog", 1, Duration.ofMillis(catalogRefreshInterval),
+            Duration.ofMillis(cacheMaxStale), key -> loadCatalog(), meterRegistry);
+        productByIdCache = new ReactiveCache<>("products.byId", cacheMaxSize, Duration.ofMillis(productByIdTtl),
+            Duration.ofMillis(cacheMaxStale), this::fetchProductById, meterRegistry);
     }
 
-    public Mono<Object> updateProduct(Long id, UpdateProductRequest request) {
-        Map<String, Object> productData = new HashMap<>();
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval:300000}",
+        initialDelayString = "${app.catalog.refresh-interval:300000}")
+    public void refreshCatalog() {
+        catalogCache.refresh(CATALOG_KEY);
+    }
 
-        if (request.getTitle() != null) {
-            productData.put("title", request.getTitle());
-        }
-        if (request.getPrice() != null) {
-            productData.put("price", request.getPrice());
-        }
-        if (request.getDescription() != null) {
-            productData.put("description", request.getDescription());
-        }
-        if (request.getCategory() != null) {
-            productData.put("category", request.getCategory());
-        }
-        if (request.getImage() != null) {
-            productData.put("image", request.getImage());
-        }
+    /**
+     * Pulls the upstream catalog into the products table and reloads the snapshot from it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.sync-interval:900000}",
+        initialDelayString = "${app.catalog.sync-interval:900000}")
+    public void syncCatalog() {
+        productSyncService.sync()
+            .subscribe(count -> refreshCatalog(), e -> log.warn("Catalog sync skipped: {}", e.getMessage()));
+    }
+
+    /**
+     * When loading fails and nothing is cached, the last known catalog is served without being
+     * cached, so the next read tries a real load again.
+     */
+    public Mono<ProductCatalog> getCatalog() {
+        return catalogCache.get(CATALOG_KEY)
+            .onErrorResume(e -> {
+                ProductCatalog fallback = lastCatalog;
+                if (fallback == null) {
+                    return Mono.error(e);
+                }
+                log.warn("Serving last known product catalog ({} products)", fallback.size());
+                catalogFallbackCounter.increment();
+                return Mono.just(fallback);
+            });
+    }
+
+    public Mono<ProductDTO> addProduct(CreateProductRequest request) {
+        return upstreamResilience.write("write", webClient.post()
+                .uri(fakeStoreBaseUrl + "/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(encode(ProductPayload.from(request)))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .mapNotNull(this::decode))
+            .flatMap(product -> productSyncService.save(product).thenReturn(product))
+            .doOnSuccess(product -> {
+                log.info("Product created successfully");
+                refreshCatalog();
+            })
+            .doOnError(e -> log.error("Error creating product", e));
+    }
 
-        return webClient.put()
-            .uri(fakeStoreBaseUrl + "/products/" + id)
-            .bodyValue(productData)
-            .retrieve()
-            .bodyToMono(Object.class)
-            .doOnSuccess(product -> log.info("Product updated successfully: {}", id))
+    public Mono<ProductDTO> updateProduct(Long id, UpdateProductRequest request) {
+        return upstreamResilience.write("write", webClient.put()
+                .uri(fakeStoreBaseUrl + "/products/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(encode(ProductPayload.from(request)))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .mapNotNull(this::decode))
+            .flatMap(product -> productSyncService.save(product).thenReturn(product))
+            .doOnSuccess(product -> {
+                log.info("Product updated successfully: {}", id);
+                invalidateProduct(id);
+            })
             .doOnError(e -> log.error("Error updating product: {}", id, e));
     }
 
-    public Mono<Object> deleteProduct(Long id) {
-        return webClient.delete()
-            .uri(fakeStoreBaseUrl + "/products/" + id)
-            .retrieve()
-            .bodyToMono(Object.class)
-            .doOnSuccess(product -> log.info("Product deleted successfully: {}", id))
+    public Mono<ProductDTO> deleteProduct(Long id) {
+        return upstreamResilience.write("write", webClient.delete()
+                .uri(fakeStoreBaseUrl + "/products/" + id)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .mapNotNull(this::decode))
+            .flatMap(product -> productSyncService.delete(id).thenReturn(product))
+            .switchIfEmpty(Mono.defer(() -> productSyncService.delete(id).then(Mono.empty())))
+            .doOnSuccess(product -> {
+                log.info("Product deleted successfully: {}", id);
+                invalidateProduct(id);
+            })
             .doOnError(e -> log.error("Error deleting product: {}", id, e));
     }
 
     public Mono<ProductDTO> getProductById(Long id) {
-        return webClient.get()
-            .uri(fakeStoreBaseUrl + "/products/" + id)
-            .retrieve()
-            .bodyToMono(ProductDTO.class)
+        return getCatalog()
+            .flatMap(catalog -> catalog.findById(id)
+                .map(Mono::just)
+                .orElseGet(() -> productByIdCache.get(id)));
+    }
+
+    public Flux<ProductDTO> searchProducts(String query, Double minPrice, Double maxPrice, Integer limit) {
+        int effectiveLimit = limit == null || limit <= 0 ? searchDefaultLimit : Math.min(limit, searchMaxLimit);
+        return getCatalog()
+            .flatMapIterable(catalog -> catalog.search(query, minPrice, maxPrice, effectiveLimit));
+    }
+
+    /**
+     * Looks up several products in one call. Duplicate ids are collapsed, snapshot and cache
+     * hits are answered locally and only the remaining ids go upstream, at most
+     * {@code batchConcurrency} at a time. Results keep the order in which ids were first requested;
+     * an id that cannot be resolved gets an error entry instead of failing the whole batch.
+     */
+    public Mono<ProductBatchResponse> getProductsByIds(List<Long> ids) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+
+        // Without a catalog every id is fetched on its own, so each still gets its own result
+        return getCatalog()
+            .map(Optional::of)
+            .onErrorResume(e -> {
+                log.warn("Product catalog unavailable, fetching {} products individually: {}",
+                    distinctIds.size(), e.getMessage());
+                return Mono.just(Optional.empty());
+            })
+            .flatMap(catalog -> Flux.fromIterable(distinctIds)
+                .flatMap(id -> catalog.flatMap(snapshot -> snapshot.findById(id))
+                    .map(product -> Mono.just(found(id, product)))
+                    .orElseGet(() -> productByIdCache.get(id)
+                        .map(product -> found(id, product))
+                        .defaultIfEmpty(failed(id, "Product not found"))
+                        .onErrorResume(e -> Mono.just(failed(id, batchError(e))))), batchConcurrency)
+                .collectMap(ProductBatchItem::getId))
+            .map(results -> {
+                List<ProductBatchItem> products = distinctIds.stream()
+                    .map(results::get)
+                    .toList();
+                int found = (int) products.stream().filter(item -> item.getProduct() != null).count();
+                return ProductBatchResponse.builder()
+                    .products(products)
+                    .found(found)
+                    .failed(products.size() - found)
+                    .build();
+            });
+    }
+
+    private static ProductBatchItem found(Long id, ProductDTO product) {
+        return ProductBatchItem.builder()
+            .id(id)
+            .product(product)
+            .build();
+    }
+
+    private static ProductBatchItem failed(Long id, String error) {
+        return ProductBatchItem.builder()
+            .id(id)
+            .error(error)
+            .build();
+    }
+
+    private static String batchError(Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            return "Product not found";
+        }
+        return "Product service is temporarily unavailable";
+    }
+
+    /**
+     * Builds the snapshot from the products table. On first start the table is empty, so the
+     * upstream catalog is synced once before reading it back.
+     */
+    private Mono<ProductCatalog> loadCatalog() {
+        return readCatalog()
+            .filter(catalog -> catalog.size() > 0)
+            .switchIfEmpty(Mono.defer(() -> productSyncService.sync().then(readCatalog())))
+            .doOnNext(catalog -> {
+                lastCatalog = catalog;
+                log.info("Product catalog loaded: {} products", catalog.size());
+            })
+            // Failing keeps the cached snapshot on refresh instead of caching a fallback as fresh
+            .doOnError(e -> log.error("Error loading products", e));
+    }
+
+    private Mono<ProductCatalog> readCatalog() {
+        return productRepository.findAllByOrderByIdAsc()
+            .map(this::toDto)
+            .collectList()
+            .map(products -> ProductCatalog.of(products, lastCatalog));
+    }
+
+    private ProductDTO toDto(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setTitle(product.getTitle());
+        dto.setPrice(product.getPrice());
+        dto.setDescription(product.getDescription());
+        dto.setCategory(product.getCategory());
+        dto.setImage(product.getImage());
+        return dto;
+    }
+
+    private Mono<ProductDTO> fetchProductById(Long id) {
+        return upstreamResilience.read("product", webClient.get()
+                .uri(fakeStoreBaseUrl + "/products/" + id)
+                .retrieve()
+                .bodyToMono(ProductDTO.class))
             .doOnError(e -> log.error("Error fetching product by id: {}", id, e));
     }
 
-    public Flux<ProductDTO> getProductsByCategory(String category) {
-        return webClient.get()
-            .uri(fakeStoreBaseUrl + "/products/category/" + category)
-            .retrieve()
-            .bodyToFlux(ProductDTO.class)
-            .doOnError(e -> log.error("Error fetching products by category: {}", category, e));
+    private byte[] encode(ProductPayload payload) {
+        try {
+            return productPayloadWriter.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize product payload", e);
+        }
+    }
+
+    /**
+     * An empty body or a JSON {@code null} decodes to null, which {@code mapNotNull} turns
+     * into an empty result.
+     */
+    private ProductDTO decode(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return productReader.readValue(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse product response", e);
+        }
     }
 
-    public Flux<String> getAllCategories() {
-        return webClient.get()
-            .uri(fakeStoreBaseUrl + "/products/categories")
-            .retrieve()
-            .bodyToFlux(String.class)
-            .doOnError(e -> log.error("Error fetching categories", e));
+    private void invalidateProduct(Long id) {
+        productByIdCache.invalidate(id);
+        refreshCatalog();
     }
 }
@@ -0,0 +1,93 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Mirrors the FakeStore catalog into the local {@code products} table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSyncService {
+
+    private final WebClient webClient;
+    private final ProductRepository productRepository;
+    private final UpstreamResilience upstreamResilience;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fakestore.api.base-url}")
+    private String fakeStoreBaseUrl;
+
+    /**
+     * Pulls the full upstream catalog and upserts it in one statement. Products no longer
+     * listed upstream are deleted, unless the upstream returned nothing at all.
+     * Emits the number of products synced.
+     */
+    public Mono<Integer> sync() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return fetchProducts()
+            .flatMap(products -> {
+                if (products.isEmpty()) {
+                    log.warn("Upstream returned an empty catalog, keeping local products");
+                    return Mono.just(0);
+                }
+                Long[] ids = products.stream().map(ProductDTO::getId).toArray(Long[]::new);
+                return saveAll(products)
+                    .then(productRepository.deleteByIdNotIn(ids))
+                    .doOnNext(deleted -> log.info("Product sync: {} upserted, {} removed", products.size(), deleted))
+                    .thenReturn(products.size());
+            })
+            .doOnSuccess(count -> sample.stop(meterRegistry.timer("products.sync", "outcome", "success")))
+            .doOnError(e -> {
+                sample.stop(meterRegistry.timer("products.sync", "outcome", "error"));
+                log.error("Product sync failed", e);
+            });
+    }
+
+    public Mono<Void> save(ProductDTO product) {
+        return saveAll(List.of(product)).then();
+    }
+
+    public Mono<Void> delete(Long id) {
+        return productRepository.deleteById(id);
+    }
+
+    private Mono<Integer> saveAll(List<ProductDTO> products) {
+        List<ProductDTO> withIds = products.stream()
+            .filter(product -> product.getId() != null)
+            .toList();
+        if (withIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        return productRepository.upsertAll(
+            withIds.stream().map(ProductDTO::getId).toArray(Long[]::new),
+            withIds.stream().map(ProductDTO::getTitle).toArray(String[]::new),
+            withIds.stream().map(ProductDTO::getPrice).toArray(Double[]::new),
+            withIds.stream().map(ProductDTO::getDescription).toArray(String[]::new),
+            withIds.stream().map(ProductDTO::getCategory).toArray(String[]::new),
+            withIds.stream().map(ProductDTO::getImage).toArray(String[]::new)
+        );
+    }
+
+    private Mono<List<ProductDTO>> fetchProducts() {
+        // The JSON array is tokenized as it arrives, so only decoded products are held, not the raw body
+        return upstreamResilience.read("catalog", webClient.get()
+            .uri(fakeStoreBaseUrl + "/products")
+            .retrieve()
+            .bodyToFlux(ProductDTO.class)
+            .filter(product -> Objects.nonNull(product.getId()))
+            .collectList());
+    }
+}
@@ -1,44 +1,184 @@
 package com.example.ecommerce.service;
 import com.example.ecommerce.entity.RefreshToken;
+import com.example.ecommerce.exception.UnauthorizedException;
 import com.example.ecommerce.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
 
+/**
+ * Stores refresh tokens as SHA-256 digests and rotates them on every use.
+ * <p>
+ * Each login starts a token family; every refresh marks the presented token as used and
+ * issues its successor in the same family. Presenting a used token means it was copied, so
+ * the whole family is revoked. Tokens are looked up in a write-through in-memory index keyed
+ * by digest, falling back to the database for tokens issued before a restart or by another
+ * instance. The conditional update that marks a token used stays the source of truth, so a
+ * stale index entry can never let a token be exchanged twice.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
 
     @Value("${jwt.refresh-token-expiration}")
     private Long refreshTokenExpiration;
 
+    @Value("${app.refresh-token.index-max-size:100000}")
+    private Long indexMaxSize;
+
+    private Cache<String, RefreshToken> index;
+    private Counter reuseCounter;
+
+    @PostConstruct
+    void init() {
+        index = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumSize(indexMaxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build(), "refresh_tokens.index");
+        reuseCounter = meterRegistry.counter("refresh_tokens.reuse_detected");
+    }
+
+    /**
+     * Stores {@code token} as the first of a new family, leaving the user's other sessions alone.
+     */
     public Mono<RefreshToken> saveRefreshToken(Long userId, String token) {
-        return refreshTokenRepository.deleteByUserId(userId)
-            .then(Mono.defer(() -> {
-                RefreshToken refreshToken = RefreshToken.builder()
-                    .token(token)
-                    .userId(userId)
-                    .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000))
-                    .createdAt(LocalDateTime.now())
-                    .build();
-                return refreshTokenRepository.save(refreshToken);
-            }));
+        return store(userId, token, UUID.randomUUID().toString());
     }
 
-    public Mono<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    /**
+     * Resolves a presented token. Fails if it is unknown or expired; if it was already used,
+     * its family is revoked before failing.
+     */
+    public Mono<RefreshToken> validate(String token) {
+        String tokenHash = hash(token);
+        return Mono.justOrEmpty(index.getIfPresent(tokenHash))
+            .switchIfEmpty(Mono.defer(() -> refreshTokenRepository.findByTokenHash(tokenHash)
+                .doOnNext(refreshToken -> index.put(tokenHash, refreshToken))))
+            .switchIfEmpty(Mono.error(new UnauthorizedException("Invalid refresh token")))
+            .flatMap(refreshToken -> {
+                if (refreshToken.getUsedAt() != null) {
+                    return revokeReusedFamily(refreshToken);
+                }
+                if (refreshToken.getExpiryDate().isBefore(LocalDateTime.now())) {
+                    index.invalidate(tokenHash);
+                    return refreshTokenRepository.deleteById(refreshToken.getId())
+                        .then(Mono.error(new UnauthorizedException("Refresh token expired")));
+                }
+                return Mono.just(refreshToken);
+            });
     }
 
-    public Mono<Void> deleteByToken(String token) {
-        return refreshTokenRepository.deleteByToken(token);
+    /**
+     * Exchanges {@code current} for {@code nextToken} in the same family. Fails and revokes
+     * the family if {@code current} was used in the meantime, e.g. by a concurrent request
+     * with a stolen copy.
+     */
+    public Mono<RefreshToken> rotate(RefreshToken current, String nextToken) {
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.markUsed(current.getTokenHash(), now)
+            .flatMap(updated -> {
+                if (updated == 0) {
+                    return revokeReusedFamily(current);
+                }
+                index.put(current.getTokenHash(), current.toBuilder().usedAt(now).build());
+                return store(current.getUserId(), nextToken, current.getFamilyId());
+            });
     }
 
+    /**
+     * Revokes every refresh token of the user, e.g. after a password change.
+     */
     public Mono<Void> deleteByUserId(Long userId) {
-        return refreshTokenRepository.deleteByUserId(userId);
+        return refreshTokenRepository.deleteByUserId(userId)
+            .doOnSuccess(ignored -> index.asMap().values().removeIf(token -> userId.equals(token.getUserId())));
+    }
+
+    /**
+     * Used tokens are kept until they expire so that reuse can still be detected.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-token.cleanup-interval:3600000}",
+        initialDelayString = "${app.refresh-token.cleanup-interval:3600000}")
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now())
+            .subscribe(count -> log.debug("Deleted {} expired refresh tokens", count),
+                e -> log.warn("Refresh token cleanup failed: {}", e.getMessage()));
+    }
+
+    private Mono<RefreshToken> store(Long userId, String token, String familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken refreshToken = RefreshToken.builder()
+            .tokenHash(hash(token))
+            .userId(userId)
+            .familyId(familyId)
+            .expiryDate(now.plusSeconds(refreshTokenExpiration / 1000))
+            .createdAt(now)
+            .build();
+        return refreshTokenRepository.save(refreshToken)
+            .doOnNext(saved -> index.put(saved.getTokenHash(), saved));
+    }
+
+    private <T> Mono<T> revokeReusedFamily(RefreshToken reused) {
+        log.warn("Refresh token reuse detected for user {}; revoking token family {}",
+            reused.getUserId(), reused.getFamilyId());
+        reuseCounter.increment();
+        return refreshTokenRepository.deleteByFamilyId(reused.getFamilyId())
+            .doOnSuccess(ignored -> index.asMap().values()
+                .removeIf(token -> reused.getFamilyId().equals(token.getFamilyId())))
+            .then(Mono.error(new UnauthorizedException("Refresh token has already been used")));
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Index entries live until the token expires; used tokens are kept too so reuse is
+     * detected without a query.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, RefreshToken> {
+
+        @Override
+        public long expireAfterCreate(String key, RefreshToken token, long currentTime) {
+            long nanos = Duration.between(LocalDateTime.now(), token.getExpiryDate()).toNanos();
+            return Math.max(0, nanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.example.ecommerce.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * Upstream failures worth retrying and counting against the circuit breaker: I/O errors,
+ * timeouts, 5xx and 429. Client errors such as 404 are the caller's problem, not an outage.
+ */
+public class UpstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof WebClientRequestException) {
+            return true;
+        }
+        if (throwable instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                || responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ecommerce.service;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards calls to the FakeStore API. Every call goes through a per-endpoint bulkhead and the shared
+ * "fakestore" circuit breaker; reads are additionally retried with exponential backoff and jitter.
+ * Instances are configured under resilience4j.* and publish resilience4j_* metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamResilience {
+
+    static final String UPSTREAM = "fakestore";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * For idempotent GETs only, since a retried call may reach the upstream more than once.
+     */
+    public <T> Mono<T> read(String endpoint, Mono<T> call) {
+        return guard(endpoint, call)
+            .transformDeferred(RetryOperator.of(retryRegistry.retry(UPSTREAM)));
+    }
+
+    public <T> Mono<T> write(String endpoint, Mono<T> call) {
+        return guard(endpoint, call);
+    }
+
+    private <T> Mono<T> guard(String endpoint, Mono<T> call) {
+        return call
+            .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(UPSTREAM + "-" + endpoint)))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(UPSTREAM)));
+    }
+}
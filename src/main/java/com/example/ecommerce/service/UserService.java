@@ -8,10 +8,12 @@ import com.example.ecommerce.exception.BadRequestException;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.repository.UserRepository;
 import com.example.ecommerce.security.CustomUserDetails;
+import com.example.ecommerce.security.CustomUserDetailsService;
+import com.example.ecommerce.security.PasswordHashingService;
+import com.example.ecommerce.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -22,8 +24,11 @@ import java.time.LocalDateTime;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final DatabaseClient databaseClient;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
 
     public Mono<UserResponse> getCurrentUser(Authentication authentication) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
@@ -71,14 +76,22 @@ public class UserService {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
         return userRepository.findById(userDetails.getId())
-            .flatMap(user -> {
-                if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-                    return Mono.error(new BadRequestException("Current password is incorrect"));
-                }
-
-                user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-                user.setUpdatedAt(LocalDateTime.now());
-                return userRepository.save(user);
+            .flatMap(user -> passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())
+                .flatMap(matches -> {
+                    if (!matches) {
+                        return Mono.error(new BadRequestException("Current password is incorrect"));
+                    }
+                    return passwordHashingService.encode(request.getNewPassword());
+                })
+                .flatMap(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    user.setUpdatedAt(LocalDateTime.now());
+                    return userRepository.save(user);
+                }))
+            .flatMap(user -> refreshTokenService.deleteByUserId(user.getId()).thenReturn(user))
+            .doOnNext(user -> {
+                userDetailsService.evict(user);
+                tokenRevocationService.revokeUser(user.getId());
             })
             .thenReturn(new MessageResponse("Password changed successfully"))
             .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found")));
@@ -0,0 +1,54 @@
+package com.example.ecommerce.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ReactiveCache<String, String> cache(Duration loadDelay) {
+        return new ReactiveCache<>("test", 100, Duration.ofMinutes(1), Duration.ofMinutes(1),
+            key -> Mono.fromCallable(() -> key + "-" + loads.incrementAndGet()).delayElement(loadDelay),
+            new SimpleMeterRegistry());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        ReactiveCache<String, String> cache = cache(Duration.ofMillis(100));
+
+        StepVerifier.create(Flux.range(0, 20).flatMap(i -> cache.get("a")).distinct())
+            .expectNext("a-1")
+            .verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        ReactiveCache<String, String> cache = cache(Duration.ZERO);
+
+        StepVerifier.create(cache.get("a")).expectNext("a-1").verifyComplete();
+        StepVerifier.create(cache.get("a")).expectNext("a-1").verifyComplete();
+        cache.invalidate("a");
+        StepVerifier.create(cache.get("a")).expectNext("a-2").verifyComplete();
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        AtomicInteger emptyLoads = new AtomicInteger();
+        ReactiveCache<String, String> cache = new ReactiveCache<>("empty", 100, Duration.ofMinutes(1),
+            Duration.ofMinutes(1), key -> Mono.fromRunnable(emptyLoads::incrementAndGet), new SimpleMeterRegistry());
+
+        StepVerifier.create(cache.get("missing")).verifyComplete();
+        StepVerifier.create(cache.get("missing")).verifyComplete();
+        assertThat(emptyLoads).hasValue(2);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.CategoryFacet;
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.dto.response.ProductFacetsResponse;
+import com.example.ecommerce.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.ecommerce.catalog.ProductSearchIndexTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ProductCatalogTest {
+
+    private final ProductCatalog catalog = ProductCatalog.of(List.of(
+        product(5L, "Backpack", "", "bags", 109.95),
+        product(1L, "Jacket", "", "clothing", 55.99),
+        product(3L, "Ring", "", "jewelery", 9.99),
+        product(2L, "T-Shirt", "", "clothing", 22.3),
+        product(4L, "Drive", "", "electronics", 64.0),
+        product(6L, "Bracelet", "", "jewelery", 9.99)
+    ));
+
+    @Test
+    void keepsIdOrderAndLegacyDescSort() {
+        assertThat(ids(query(null, null, null, null, null, null, null, null))).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(ids(query(null, null, null, "desc", null, null, null, 2))).containsExactly(6L, 5L);
+    }
+
+    @Test
+    void filtersPriceRangeInPriceOrder() {
+        assertThat(ids(query(9.99, 60.0, null, "price", null, null, null, null))).containsExactly(3L, 6L, 2L, 1L);
+        assertThat(ids(query(20.0, null, null, "price", "desc", null, null, null))).containsExactly(5L, 4L, 1L, 2L);
+    }
+
+    @Test
+    void combinesCategoriesWithPriceFilterAndTitleSort() {
+        assertThat(ids(query(null, 50.0, List.of("clothing", "jewelery"), "title", null, null, null, null)))
+            .containsExactly(6L, 3L, 2L);
+    }
+
+    @Test
+    void pagesWithOffset() {
+        assertThat(ids(query(null, null, null, "price", null, 2, null, 2))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void cursorPagesCoverEveryProductOnce() {
+        for (String order : List.of("asc", "desc")) {
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                ProductPage page = catalog.getProducts(ProductQuery.of(null, null, null, "price", order, null, cursor, 4));
+                page.products().forEach(product -> seen.add(product.getId()));
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertThat(seen).hasSize(6).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void aggregatesFacetsPerCategory() {
+        ProductFacetsResponse facets = catalog.getFacets();
+
+        assertThat(facets.getTotal()).isEqualTo(6);
+        assertThat(facets.getMinPrice()).isEqualTo(9.99);
+        assertThat(facets.getMaxPrice()).isEqualTo(109.95);
+        assertThat(facets.getCategories())
+            .extracting(CategoryFacet::getCategory, CategoryFacet::getCount, CategoryFacet::getMinPrice, CategoryFacet::getMaxPrice)
+            .containsExactly(
+                tuple("clothing", 2, 22.3, 55.99),
+                tuple("jewelery", 2, 9.99, 9.99),
+                tuple("electronics", 1, 64.0, 64.0),
+                tuple("bags", 1, 109.95, 109.95));
+        // Shared by every request against the snapshot
+        assertThatThrownBy(() -> facets.getCategories().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> ProductQuery.of(10.0, 5.0, null, null, null, null, null, null))
+            .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> ProductQuery.of(null, null, null, "rating", null, null, null, null))
+            .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> catalog.getProducts(ProductQuery.of(null, null, null, "title", null, null, "bm9wZQ", 2)))
+            .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<ProductDTO> query(Double minPrice, Double maxPrice, List<String> categories, String sort,
+                                   String order, Integer offset, String cursor, Integer limit) {
+        return catalog.getProducts(ProductQuery.of(minPrice, maxPrice, categories, sort, order, offset, cursor, limit))
+            .products();
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query throughput of ProductSearchIndex over 100k synthetic products, plus the cost of a
+ * full build against a rebuild where 1% of the products changed.
+ * Run the main method from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductSearchIndexBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final String[] ADJECTIVES = {"slim", "classic", "waterproof", "wireless", "organic", "vintage",
+        "compact", "premium", "lightweight", "durable", "portable", "ergonomic"};
+    private static final String[] NOUNS = {"jacket", "shirt", "backpack", "headphones", "ring", "monitor",
+        "drive", "bracelet", "sneakers", "keyboard", "lamp", "watch", "blender", "tent", "scarf"};
+    private static final String[] CATEGORIES = {"men's clothing", "women's clothing", "jewelery", "electronics",
+        "home", "outdoor", "kitchen", "sports"};
+
+    private List<ProductDTO> products;
+    private List<ProductDTO> changedProducts;
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        products = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(product(random, id));
+        }
+        index = ProductSearchIndex.build(products, null);
+
+        changedProducts = new ArrayList<>(products);
+        for (int i = 0; i < PRODUCTS / 100; i++) {
+            int position = random.nextInt(PRODUCTS);
+            changedProducts.set(position, product(random, products.get(position).getId()));
+        }
+    }
+
+    @Benchmark
+    public List<ProductDTO> singleTerm() {
+        return index.search("backpack", null, null, 20);
+    }
+
+    @Benchmark
+    public List<ProductDTO> twoTerms() {
+        return index.search("waterproof jacket", null, null, 20);
+    }
+
+    @Benchmark
+    public List<ProductDTO> prefix() {
+        return index.search("wireless head", null, null, 20);
+    }
+
+    @Benchmark
+    public List<ProductDTO> withPriceRange() {
+        return index.search("classic watch", 50.0, 150.0, 20);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProductSearchIndex fullBuild() {
+        return ProductSearchIndex.build(changedProducts, null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProductSearchIndex incrementalBuild() {
+        return ProductSearchIndex.build(changedProducts, index);
+    }
+
+    private static ProductDTO product(Random random, long id) {
+        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setTitle(adjective + " " + noun + " model " + id);
+        product.setDescription("A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun
+            + " built for everyday use, batch " + random.nextInt(1000));
+        product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        product.setPrice(Math.round(random.nextDouble() * 50_000) / 100.0);
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ProductSearchIndexBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ecommerce.catalog;
+
+import com.example.ecommerce.dto.response.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private final List<ProductDTO> products = List.of(
+        product(1L, "Mens Cotton Jacket", "great outerwear for winter", "men's clothing", 55.99),
+        product(2L, "Slim Fit T-Shirt", "cotton shirt for everyday wear", "men's clothing", 22.3),
+        product(3L, "Womens Rain Jacket", "lightweight and waterproof", "women's clothing", 39.99),
+        product(4L, "SSD 1TB", "fast solid state drive", "electronics", 109.0)
+    );
+
+    private final ProductSearchIndex index = ProductSearchIndex.build(products, null);
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        assertThat(ids(index.search("cotton", null, null, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void requiresEveryQueryToken() {
+        assertThat(ids(index.search("jacket womens", null, null, 10))).containsExactly(3L);
+        assertThat(ids(index.search("jacket electronics", null, null, 10))).isEmpty();
+    }
+
+    @Test
+    void matchesLastTokenAsPrefix() {
+        assertThat(ids(index.search("jack", null, null, 10))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids(index.search("jack mens", null, null, 10))).isEmpty();
+    }
+
+    @Test
+    void ignoresCaseAndPunctuation() {
+        assertThat(ids(index.search("T-SHIRT!", null, null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void filtersByPriceRangeAndLimit() {
+        assertThat(ids(index.search("jacket", 40.0, null, 10))).containsExactly(1L);
+        assertThat(ids(index.search("jacket", null, 40.0, 10))).containsExactly(3L);
+        assertThat(ids(index.search("clothing", null, null, 1))).hasSize(1);
+    }
+
+    @Test
+    void rebuildPicksUpChangedProducts() {
+        ProductDTO renamed = product(4L, "NVMe Drive 2TB", "fast solid state drive", "electronics", 149.0);
+        ProductSearchIndex rebuilt = ProductSearchIndex.build(
+            List.of(products.get(0), products.get(1), products.get(2), renamed), index);
+
+        assertThat(ids(rebuilt.search("ssd", null, null, 10))).isEmpty();
+        assertThat(ids(rebuilt.search("nvme", null, null, 10))).containsExactly(4L);
+        assertThat(ids(rebuilt.search("cotton", null, null, 10))).containsExactly(1L, 2L);
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+
+    static ProductDTO product(Long id, String title, String description, String category, Double price) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setPrice(price);
+        return product;
+    }
+}
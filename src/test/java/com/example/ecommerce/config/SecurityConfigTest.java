@@ -0,0 +1,89 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.security.JwtAuthenticationFilter;
+import com.example.ecommerce.security.RateLimitFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockUser;
+
+/**
+ * Access rules of the security chain, checked against stub endpoints on the actuator paths.
+ */
+@WebFluxTest(controllers = SecurityConfigTest.StubEndpoints.class,
+    excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = RateLimitFilter.class))
+@Import({SecurityConfig.class, SecurityConfigTest.StubEndpoints.class})
+class SecurityConfigTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @BeforeEach
+    void passThroughJwtFilter() {
+        when(jwtAuthenticationFilter.filter(any(), any())).thenAnswer(invocation -> {
+            ServerWebExchange exchange = invocation.getArgument(0);
+            WebFilterChain chain = invocation.getArgument(1);
+            return chain.filter(exchange);
+        });
+    }
+
+    @Test
+    void metricsRequireAdmin() {
+        client.get().uri("/actuator/metrics").exchange().expectStatus().isUnauthorized();
+        client.mutateWith(mockUser().roles("USER"))
+            .get().uri("/actuator/metrics").exchange().expectStatus().isForbidden();
+        client.mutateWith(mockUser().roles("ADMIN"))
+            .get().uri("/actuator/metrics").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void healthIsAvailableToAnyUser() {
+        client.mutateWith(mockUser().roles("USER"))
+            .get().uri("/actuator/health").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void probesDoNotNeedCredentials() {
+        client.get().uri("/actuator/health/liveness").exchange().expectStatus().isOk();
+        // A warming instance answers with its own status instead of 401
+        client.get().uri("/actuator/health/readiness").exchange().expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @RestController
+    static class StubEndpoints {
+
+        @GetMapping("/actuator/metrics")
+        Mono<String> metrics() {
+            return Mono.just("metrics");
+        }
+
+        @GetMapping({"/actuator/health", "/actuator/health/liveness"})
+        Mono<String> health() {
+            return Mono.just("UP");
+        }
+
+        @GetMapping("/actuator/health/readiness")
+        Mono<ResponseEntity<String>> readiness() {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("OUT_OF_SERVICE"));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ecommerce.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+class WebClientConfigTest {
+
+    private DisposableServer stub;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        stub = HttpServer.create()
+            .port(0)
+            .compress(true)
+            .route(routes -> routes
+                .get("/products/1", (request, response) -> response.sendString(Mono.just("{\"id\":1}")))
+                .get("/slow", (request, response) -> response.sendString(
+                    Mono.delay(Duration.ofSeconds(2)).thenReturn("late"))))
+            .bindNow();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.setMaxConnections(2);
+        properties.setResponseTimeout(300);
+        properties.setReadTimeout(300);
+        webClient = new WebClientConfig(properties).webClient(WebClient.builder()
+            .baseUrl("http://localhost:" + stub.port()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+    }
+
+    @Test
+    void reusesPooledConnectionsBeyondPoolSize() {
+        StepVerifier.create(Flux.range(0, 10)
+                .flatMap(i -> webClient.get().uri("/products/1").retrieve().bodyToMono(String.class))
+                .distinct())
+            .expectNext("{\"id\":1}")
+            .verifyComplete();
+    }
+
+    @Test
+    void slowUpstreamFailsWithinResponseTimeout() {
+        StepVerifier.create(webClient.get().uri("/slow").retrieve().bodyToMono(String.class))
+            .expectError(WebClientRequestException.class)
+            .verify(Duration.ofSeconds(1));
+    }
+}
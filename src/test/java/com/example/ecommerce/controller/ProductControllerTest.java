@@ -0,0 +1,121 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.catalog.ProductCatalog;
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.example.ecommerce.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        ProductController controller = new ProductController(productService);
+        ReflectionTestUtils.setField(controller, "httpMaxAge", 60_000L);
+        client = WebTestClient.bindToController(controller).build();
+        when(productService.getCatalog()).thenReturn(Mono.just(ProductCatalog.of(List.of(product(1L), product(2L)))));
+    }
+
+    @Test
+    void streamsProductsAsNdjson() {
+        String body = client.get().uri("/api/products")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(body.lines()).hasSize(2)
+            .allMatch(line -> line.startsWith("{\"id\":"));
+    }
+
+    @Test
+    void streamsProductsAsServerSentEvents() {
+        Flux<ProductDTO> events = client.get().uri("/api/products")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(ProductDTO.class)
+            .getResponseBody();
+
+        assertThat(events.map(ProductDTO::getId).collectList().block()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void keepsJsonArrayAsDefault() {
+        client.get().uri("/api/products")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void answersNotModifiedWhenEtagMatches() {
+        String etag = client.get().uri("/api/products")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, private")
+            .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+        client.get().uri("/api/products")
+            .ifNoneMatch(etag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void usesDistinctEtagsPerVariantAndCatalogVersion() {
+        String all = etag("/api/products");
+        String limited = etag("/api/products?limit=1");
+        String categories = etag("/api/products/categories");
+        assertThat(all).isNotEqualTo(limited).isNotEqualTo(categories);
+
+        ProductDTO changed = product(2L);
+        changed.setPrice(12.5);
+        when(productService.getCatalog()).thenReturn(Mono.just(ProductCatalog.of(List.of(product(1L), changed))));
+
+        assertThat(etag("/api/products")).isNotEqualTo(all);
+    }
+
+    private String etag(String uri) {
+        return client.get().uri(uri)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setTitle("Product " + id);
+        product.setPrice(10.0);
+        product.setCategory("misc");
+        return product;
+    }
+}
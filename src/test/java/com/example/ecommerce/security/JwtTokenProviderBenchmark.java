@@ -0,0 +1,83 @@
+package com.example.ecommerce.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign/verify throughput of JwtTokenProvider against the previous implementation, which
+ * derived the HMAC key and built a new parser on every call.
+ * Run the main method from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-benchmark-secret-key-0123456789";
+
+    private JwtTokenProvider tokenProvider;
+    private CustomUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshTokenExpiration", 604_800_000L);
+        tokenProvider.init();
+
+        userDetails = new CustomUserDetails(1L, "benchmark", "benchmark@example.com", null, true, List.of("ROLE_USER"));
+        token = tokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String signCached() {
+        return tokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return tokenProvider.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public String signPerCallKey() {
+        return Jwts.builder()
+            .claim("roles", userDetails.getRoles())
+            .subject(userDetails.getUsername())
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + 900_000L))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+
+    @Benchmark
+    public String verifyPerCallKey() {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload()
+            .getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtTokenProviderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoginIdentifierFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginIdentifierFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LoginIdentifierFilter(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "rescanOverlap", 1000L);
+        ReflectionTestUtils.setField(filter, "refreshInterval", 5000L);
+        filter.init();
+    }
+
+    @Test
+    void treatsEverythingAsKnownUntilBuilt() {
+        assertThat(filter.mightExist("nobody")).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownIdentifiersOnceBuilt() {
+        when(userRepository.count()).thenReturn(Mono.just(1L));
+        when(userRepository.findLoginIdentifiersAfter(0L)).thenReturn(Flux.just(user(1L, "alice")));
+
+        filter.rebuild();
+
+        assertThat(filter.mightExist("alice")).isTrue();
+        assertThat(filter.mightExist("alice@example.com")).isTrue();
+        assertThat(filter.mightExist("mallory")).isFalse();
+        assertThat(meterRegistry.get("login.identifier_filter.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void picksUpSignupsAndUsersCreatedElsewhere() {
+        ReflectionTestUtils.setField(filter, "rescanOverlap", 2L);
+        when(userRepository.count()).thenReturn(Mono.just(1L));
+        when(userRepository.findLoginIdentifiersAfter(0L)).thenReturn(Flux.just(user(1L, "alice")))
+            .thenReturn(Flux.just(user(3L, "carol")));
+        filter.rebuild();
+
+        // A local signup with a higher id must not hide remote users with lower ids
+        filter.add(user(5L, "eve"));
+        filter.refresh();
+        // dave's id was taken before carol's but committed after the previous scan
+        when(userRepository.findLoginIdentifiersAfter(1L)).thenReturn(Flux.just(user(2L, "dave"), user(3L, "carol")));
+        filter.refresh();
+
+        assertThat(filter.mightExist("eve")).isTrue();
+        assertThat(filter.mightExist("carol@example.com")).isTrue();
+        assertThat(filter.mightExist("dave")).isTrue();
+    }
+
+    @Test
+    void fallsThroughToTheDatabaseWhileRefreshKeepsFailing() {
+        when(userRepository.count()).thenReturn(Mono.just(1L));
+        when(userRepository.findLoginIdentifiersAfter(0L)).thenReturn(Flux.just(user(1L, "alice")))
+            .thenReturn(Flux.error(new IllegalStateException("database down")));
+        filter.rebuild();
+        assertThat(filter.mightExist("mallory")).isFalse();
+
+        filter.refresh();
+        assertThat(filter.mightExist("mallory")).isFalse();
+        // Last good scan two refresh intervals ago: the filter may be missing new users
+        ReflectionTestUtils.setField(filter, "lastScanAt", System.currentTimeMillis() - 10_001);
+        filter.refresh();
+        assertThat(filter.mightExist("mallory")).isTrue();
+    }
+
+    private static User user(Long id, String username) {
+        return User.builder()
+            .id(id)
+            .username(username)
+            .email(username + "@example.com")
+            .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncoderFactoryTest {
+
+    private final PasswordEncoder encoder = PasswordEncoderFactory.create("bcrypt", 5, Duration.ZERO);
+
+    @Test
+    void writesPrefixedHashesThatNeedNoUpgrade() {
+        String hash = encoder.encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void matchesLegacyUnprefixedHashesAndUpgradesThem() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void upgradesHashesWithLowerCost() {
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+        String stronger = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret");
+
+        assertThat(encoder.matches("secret", weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(stronger)).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertThat(PasswordEncoderFactory.calibrateBCryptStrength(Duration.ZERO))
+            .isEqualTo(PasswordEncoderFactory.MIN_BCRYPT_STRENGTH);
+        assertThat(PasswordEncoderFactory.calibrateBCryptStrength(Duration.ofDays(1)))
+            .isEqualTo(PasswordEncoderFactory.MAX_BCRYPT_STRENGTH);
+    }
+
+    @Test
+    void rejectsUnknownAlgorithm() {
+        assertThatThrownBy(() -> PasswordEncoderFactory.create("md5", 5, Duration.ZERO))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void hashesOffTheCallingThread() {
+        service = create(new BCryptPasswordEncoder(4), 2, 10);
+        String caller = Thread.currentThread().getName();
+
+        String hash = service.encode("secret").block();
+
+        StepVerifier.create(service.matches("secret", hash))
+            .expectNext(true)
+            .verifyComplete();
+        StepVerifier.create(service.encode("secret").map(ignored -> Thread.currentThread().getName()))
+            .assertNext(thread -> assertThat(thread).startsWith("password-hash-").isNotEqualTo(caller))
+            .verifyComplete();
+        assertThat(meterRegistry.get("password.hash").tag("operation", "encode").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableWhenSaturated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        service = create(blockingEncoder, 1, 1);
+
+        // One call runs, one waits in the queue, the third is shed
+        Flux.range(0, 2).flatMap(i -> service.encode("secret")).subscribe();
+        Thread.sleep(100);
+        StepVerifier.create(service.encode("secret"))
+            .expectError(ServiceUnavailableException.class)
+            .verify();
+        release.countDown();
+
+        assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private PasswordHashingService create(PasswordEncoder encoder, int threads, int queueCapacity) {
+        PasswordHashingService hashingService = new PasswordHashingService(encoder, meterRegistry);
+        ReflectionTestUtils.setField(hashingService, "threads", threads);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", queueCapacity);
+        hashingService.init();
+        return hashingService;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce.security;
+
+import com.example.ecommerce.config.RateLimitProperties;
+import com.example.ecommerce.exception.RateLimitExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private RateLimitService rateLimitService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEndpoints(Map.of("login", new RateLimitProperties.EndpointLimit("/api/auth/login", 2, 60000)));
+        properties.setAccount(new RateLimitProperties.Limit(1, 60000));
+        rateLimitService = new RateLimitService(properties, meterRegistry);
+        rateLimitService.init();
+        RateLimitFilter filter = new RateLimitFilter(rateLimitService, new ObjectMapper().registerModule(new JavaTimeModule()));
+        client = WebTestClient.bindToRouterFunction(RouterFunctions
+                .route(POST("/api/auth/login"), request -> ServerResponse.ok().build())
+                .andRoute(GET("/api/auth/login"), request -> ServerResponse.ok().build()))
+            .webFilter(filter)
+            .build();
+    }
+
+    @Test
+    void rejectsRequestsOverTheEndpointLimit() {
+        client.post().uri("/api/auth/login").exchange().expectStatus().isOk();
+        client.post().uri("/api/auth/login").exchange().expectStatus().isOk();
+
+        client.post().uri("/api/auth/login").exchange()
+            .expectStatus().isEqualTo(429)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "30")
+            .expectBody().jsonPath("$.status").isEqualTo(429);
+        // Other methods are not limited
+        client.get().uri("/api/auth/login").exchange().expectStatus().isOk();
+        assertThat(meterRegistry.get("auth.rate_limit.rejected").tag("limit", "login").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsFailedLoginsPerAccountAndClient() {
+        // Checking alone never uses up the account's attempts
+        StepVerifier.create(rateLimitService.checkAccount("Alice", "10.0.0.1")
+                .then(rateLimitService.checkAccount("alice", "10.0.0.1")))
+            .verifyComplete();
+
+        rateLimitService.recordFailedLogin("Alice", "10.0.0.1");
+        StepVerifier.create(rateLimitService.checkAccount(" alice ", "10.0.0.1"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+        // The owner signing in from elsewhere is not affected
+        StepVerifier.create(rateLimitService.checkAccount("alice", "10.0.0.2")).verifyComplete();
+        StepVerifier.create(rateLimitService.checkAccount("bob", "10.0.0.1")).verifyComplete();
+    }
+
+    @Test
+    void passesEverythingWhenDisabled() {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 5; i++) {
+            client.post().uri("/api/auth/login").exchange().expectStatus().isOk();
+        }
+        rateLimitService.recordFailedLogin("alice", "10.0.0.1");
+        rateLimitService.recordFailedLogin("alice", "10.0.0.1");
+        StepVerifier.create(rateLimitService.checkAccount("alice", "10.0.0.1")).verifyComplete();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+    private final RateLimiter limiter = new RateLimiter(3, Duration.ofSeconds(3), clock::get);
+
+    @Test
+    void allowsBurstThenRefillsOneTokenPerInterval() {
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("b")).isZero();
+
+        advance(Duration.ofMillis(999));
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        advance(Duration.ofMillis(1));
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void peekReportsWaitWithoutTakingTokens() {
+        assertThat(limiter.peek("a")).isZero();
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.peek("a")).isZero();
+            limiter.tryAcquire("a");
+        }
+        assertThat(limiter.peek("a")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.peek("a")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+        advance(Duration.ofSeconds(1));
+        assertThat(limiter.peek("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void expiresOnlyBucketsThatRefilledCompletely() {
+        limiter.tryAcquire("idle");
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("busy");
+        }
+
+        advance(Duration.ofMillis(1500));
+        limiter.expire();
+        assertThat(limiter.size()).isEqualTo(1);
+
+        advance(Duration.ofMillis(1600));
+        limiter.expire();
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void expiresEverythingAfterLongPause() {
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+
+        advance(Duration.ofHours(2));
+        limiter.expire();
+
+        assertThat(limiter.size()).isZero();
+        assertThat(limiter.tryAcquire("key-1")).isZero();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ecommerce.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTest {
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider();
+    private final TokenRevocationService revocationService = new TokenRevocationService();
+    private final CustomUserDetails user =
+        new CustomUserDetails(1L, "alice", "alice@example.com", null, true, List.of("ROLE_USER"));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "test-secret-that-is-long-enough-for-hmac-sha256");
+        ReflectionTestUtils.setField(tokenProvider, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshTokenExpiration", 604_800_000L);
+        tokenProvider.init();
+        ReflectionTestUtils.setField(revocationService, "accessTokenExpiration", 900_000L);
+    }
+
+    @Test
+    void tokenIssuedRightAfterRevocationStaysValid() throws InterruptedException {
+        String before = tokenProvider.generateAccessToken(user);
+        Thread.sleep(2);
+        revocationService.revokeUser(1L);
+        Thread.sleep(2);
+        String after = tokenProvider.generateAccessToken(user);
+
+        assertThat(revocationService.isRevoked(tokenProvider.verifyAndExtract(before).orElseThrow())).isTrue();
+        assertThat(revocationService.isRevoked(tokenProvider.verifyAndExtract(after).orElseThrow())).isFalse();
+    }
+}
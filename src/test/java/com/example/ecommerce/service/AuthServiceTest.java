@@ -0,0 +1,110 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.config.RateLimitProperties;
+import com.example.ecommerce.dto.request.LoginRequest;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserWithRoles;
+import com.example.ecommerce.exception.RateLimitExceededException;
+import com.example.ecommerce.exception.UnauthorizedException;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.UserRoleRepository;
+import com.example.ecommerce.security.CustomUserDetailsService;
+import com.example.ecommerce.security.JwtTokenProvider;
+import com.example.ecommerce.security.LoginIdentifierFilter;
+import com.example.ecommerce.security.PasswordHashingService;
+import com.example.ecommerce.security.RateLimitService;
+import com.example.ecommerce.security.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String HASH = "{bcrypt}$2a$10$hash";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final LoginIdentifierFilter loginIdentifierFilter = mock(LoginIdentifierFilter.class);
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAccount(new RateLimitProperties.Limit(2, 60000));
+        RateLimitService rateLimitService = new RateLimitService(properties, new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(rateLimitService, "init");
+        authService = new AuthService(userRepository, mock(UserRoleRepository.class), passwordHashingService,
+            tokenProvider, refreshTokenService, mock(VerificationTokenService.class), mock(EmailService.class),
+            mock(TokenRevocationService.class), mock(CustomUserDetailsService.class), rateLimitService,
+            loginIdentifierFilter);
+
+        User alice = User.builder().id(1L).username("alice").email("alice@example.com").password(HASH)
+            .isEnabled(true).isEmailVerified(true).build();
+        when(loginIdentifierFilter.mightExist(anyString())).thenReturn(true);
+        when(userRepository.findWithRolesByUsernameOrEmail("alice"))
+            .thenAnswer(invocation -> Mono.just(new UserWithRoles(alice, List.of("ROLE_USER"))));
+        when(passwordHashingService.matches("secret", HASH)).thenReturn(Mono.just(true));
+        when(passwordHashingService.matches("guess", HASH)).thenReturn(Mono.just(false));
+        when(tokenProvider.generateAccessToken(any())).thenReturn("access");
+        when(tokenProvider.generateRefreshToken(any())).thenReturn("refresh");
+        when(refreshTokenService.saveRefreshToken(anyLong(), anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void ownerCanSignInWhileAnotherClientIsLockedOutOfTheAccount() {
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(authService.login(login("guess"), "10.0.0.9"))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        }
+        StepVerifier.create(authService.login(login("guess"), "10.0.0.9"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+
+        StepVerifier.create(authService.login(login("secret"), "10.0.0.1"))
+            .assertNext(response -> assertThat(response.getAccessToken()).isEqualTo("access"))
+            .verifyComplete();
+    }
+
+    @Test
+    void successfulLoginsDoNotUseUpTheLimit() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(authService.login(login("secret"), "10.0.0.1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        }
+    }
+
+    @Test
+    void loginDoesNotWaitForThePasswordHashUpgrade() {
+        when(passwordHashingService.upgradeEncoding(HASH)).thenReturn(true);
+        when(passwordHashingService.encode("secret")).thenReturn(Mono.never());
+
+        StepVerifier.create(authService.login(login("secret"), "10.0.0.1"))
+            .expectNextCount(1)
+            .verifyComplete();
+        verify(passwordHashingService).encode("secret");
+    }
+
+    private static LoginRequest login(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsernameOrEmail("alice");
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.request.CreateProductRequest;
+import com.example.ecommerce.dto.request.ProductPayload;
+import com.example.ecommerce.dto.response.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode throughput of product write payloads: the previous HashMap body decoded as
+ * {@code Object} against the typed record with a pre-built ObjectWriter/ObjectReader.
+ * Run the main method from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPayloadBenchmark {
+
+    private static final String RESPONSE = "{\"id\":21,\"title\":\"Mens Cotton Jacket\",\"price\":55.99,"
+        + "\"description\":\"great outerwear jackets for Spring/Autumn/Winter\","
+        + "\"category\":\"men's clothing\",\"image\":\"https://fakestoreapi.com/img/71li-ujtlUL._AC_UX679_.jpg\"}";
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter payloadWriter;
+    private ObjectReader productReader;
+    private CreateProductRequest request;
+    private byte[] response;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        payloadWriter = objectMapper.writerFor(ProductPayload.class);
+        productReader = objectMapper.readerFor(ProductDTO.class);
+        request = CreateProductRequest.builder()
+            .title("Mens Cotton Jacket")
+            .price(55.99)
+            .description("great outerwear jackets for Spring/Autumn/Winter")
+            .category("men's clothing")
+            .image("https://fakestoreapi.com/img/71li-ujtlUL._AC_UX679_.jpg")
+            .build();
+        response = RESPONSE.getBytes();
+    }
+
+    @Benchmark
+    public byte[] encodeMap() throws IOException {
+        Map<String, Object> productData = new HashMap<>();
+        productData.put("title", request.getTitle());
+        productData.put("price", request.getPrice());
+        productData.put("description", request.getDescription());
+        productData.put("category", request.getCategory());
+        productData.put("image", request.getImage());
+        return objectMapper.writeValueAsBytes(productData);
+    }
+
+    @Benchmark
+    public byte[] encodeTyped() throws IOException {
+        return payloadWriter.writeValueAsBytes(ProductPayload.from(request));
+    }
+
+    @Benchmark
+    public Object decodeObject() throws IOException {
+        return objectMapper.readValue(response, Object.class);
+    }
+
+    @Benchmark
+    public ProductDTO decodeTyped() throws IOException {
+        return productReader.readValue(response);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ProductPayloadBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
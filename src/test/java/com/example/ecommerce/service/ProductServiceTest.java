@@ -0,0 +1,221 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.ReactiveCache;
+import com.example.ecommerce.catalog.ProductCatalog;
+import com.example.ecommerce.dto.request.UpdateProductRequest;
+import com.example.ecommerce.dto.response.ProductBatchItem;
+import com.example.ecommerce.dto.response.ProductBatchResponse;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private DisposableServer stub;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        stub = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                .get("/products", (request, response) -> json(count(response, "/products"),
+                    "[" + product(1) + "," + product(2) + "]"))
+                .get("/products/3", (request, response) -> json(count(response, "/products/3"), product(3)))
+                .get("/products/4", (request, response) -> count(response, "/products/4").send())
+                .get("/products/5", (request, response) -> count(response, "/products/5").status(500).send())
+                .put("/products/7", (request, response) -> json(count(response, "/products/7"),
+                    "{\"id\":7,\"price\":12.5}"))
+                .delete("/products/6", (request, response) -> json(count(response, "/products/6"), "null")))
+            .bindNow();
+
+        String baseUrl = "http://localhost:" + stub.port();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UpstreamResilience upstreamResilience = new UpstreamResilience(
+            CircuitBreakerRegistry.ofDefaults(),
+            RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+            BulkheadRegistry.ofDefaults());
+        ProductSyncService productSyncService = new ProductSyncService(
+            WebClient.create(), productRepository, upstreamResilience, meterRegistry);
+        ReflectionTestUtils.setField(productSyncService, "fakeStoreBaseUrl", baseUrl);
+
+        productService = new ProductService(WebClient.create(), meterRegistry, upstreamResilience,
+            new ObjectMapper(), productRepository, productSyncService);
+        ReflectionTestUtils.setField(productService, "fakeStoreBaseUrl", baseUrl);
+        ReflectionTestUtils.setField(productService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(productService, "cacheMaxStale", 60_000L);
+        ReflectionTestUtils.setField(productService, "productByIdTtl", 60_000L);
+        ReflectionTestUtils.setField(productService, "catalogRefreshInterval", 60_000L);
+        ReflectionTestUtils.setField(productService, "batchConcurrency", 4);
+        productService.initCaches();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+    }
+
+    @Test
+    void loadsCatalogFromDatabase() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.just(entity(1L), entity(2L)));
+
+        StepVerifier.create(productService.getCatalog().map(ProductCatalog::size))
+            .expectNext(2)
+            .verifyComplete();
+        assertThat(hits).doesNotContainKey("/products");
+    }
+
+    @Test
+    void servesLastCatalogOnFailureWithoutCachingIt() {
+        when(productRepository.findAllByOrderByIdAsc())
+            .thenReturn(Flux.just(entity(1L), entity(2L)))
+            .thenReturn(Flux.error(new IllegalStateException("database down")))
+            .thenReturn(Flux.just(entity(1L), entity(2L), entity(3L)));
+        StepVerifier.create(productService.getCatalog().map(ProductCatalog::size)).expectNext(2).verifyComplete();
+        // Entry gone, e.g. expired after a long outage
+        ((ReactiveCache<?, ?>) ReflectionTestUtils.getField(productService, "catalogCache"))
+            .invalidateAll();
+
+        StepVerifier.create(productService.getCatalog().map(ProductCatalog::size)).expectNext(2).verifyComplete();
+        // The fallback was not cached, so the recovered database is read right away
+        StepVerifier.create(productService.getCatalog().map(ProductCatalog::size)).expectNext(3).verifyComplete();
+    }
+
+    @Test
+    void syncsFromUpstreamWhenDatabaseIsEmpty() {
+        when(productRepository.findAllByOrderByIdAsc())
+            .thenReturn(Flux.empty())
+            .thenReturn(Flux.just(entity(1L), entity(2L)));
+        when(productRepository.upsertAll(any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(2));
+        when(productRepository.deleteByIdNotIn(any())).thenReturn(Mono.just(0));
+
+        StepVerifier.create(productService.getCatalog().map(ProductCatalog::size))
+            .expectNext(2)
+            .verifyComplete();
+        assertThat(hits.get("/products")).hasValue(1);
+        verify(productRepository).upsertAll(eq(new Long[]{1L, 2L}), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void batchDeduplicatesKeepsOrderAndReportsPerIdErrors() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.just(entity(1L), entity(2L)));
+
+        StepVerifier.create(productService.getProductsByIds(List.of(3L, 1L, 4L, 3L, 5L, 2L)))
+            .assertNext(response -> {
+                assertThat(response.getProducts()).extracting(ProductBatchItem::getId)
+                    .containsExactly(3L, 1L, 4L, 5L, 2L);
+                assertThat(response.getProducts()).extracting(ProductBatchItem::getError)
+                    .containsExactly(null, null, "Product not found", "Product service is temporarily unavailable", null);
+                assertThat(response.getFound()).isEqualTo(3);
+                assertThat(response.getFailed()).isEqualTo(2);
+            })
+            .verifyComplete();
+
+        // Catalog hits never go upstream individually, and the duplicate id is fetched once
+        assertThat(hits.get("/products/3")).hasValue(1);
+        assertThat(hits).doesNotContainKeys("/products/1", "/products/2");
+    }
+
+    @Test
+    void batchFetchesEachIdWhenTheCatalogIsUnavailable() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.error(new IllegalStateException("database down")));
+
+        StepVerifier.create(productService.getProductsByIds(List.of(3L, 4L, 5L)))
+            .assertNext(response -> {
+                assertThat(response.getProducts()).extracting(ProductBatchItem::getError)
+                    .containsExactly(null, "Product not found", "Product service is temporarily unavailable");
+                assertThat(response.getFound()).isEqualTo(1);
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void batchServesRepeatedMissesFromCache() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.just(entity(1L), entity(2L)));
+        productService.getProductsByIds(List.of(3L)).block();
+
+        StepVerifier.create(productService.getProductsByIds(List.of(3L)).map(ProductBatchResponse::getFound))
+            .expectNext(1)
+            .verifyComplete();
+        assertThat(hits.get("/products/3")).hasValue(1);
+    }
+
+    @Test
+    void deleteWithNullUpstreamBodyStillRemovesLocalCopy() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.just(entity(1L)));
+        when(productRepository.deleteById(6L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productService.deleteProduct(6L)).verifyComplete();
+        verify(productRepository).deleteById(6L);
+    }
+
+    @Test
+    void priceOnlyUpdateIsStoredWithoutTouchingOtherFields() {
+        when(productRepository.findAllByOrderByIdAsc()).thenReturn(Flux.just(entity(7L)));
+        when(productRepository.upsertAll(any(), any(), any(), any(), any(), any())).thenReturn(Mono.just(1));
+
+        StepVerifier.create(productService.updateProduct(7L, UpdateProductRequest.builder().price(12.5).build()))
+            .expectNextCount(1)
+            .verifyComplete();
+        // Null fields are left to the stored row by the upsert instead of dropping the write
+        verify(productRepository).upsertAll(eq(new Long[]{7L}), eq(new String[]{null}), eq(new Double[]{12.5}),
+            eq(new String[]{null}), eq(new String[]{null}), eq(new String[]{null}));
+    }
+
+    private static Product entity(Long id) {
+        return Product.builder()
+            .id(id)
+            .title("Product " + id)
+            .price(9.5)
+            .category("misc")
+            .build();
+    }
+
+    private HttpServerResponse count(HttpServerResponse response, String path) {
+        hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        return response;
+    }
+
+    private static Publisher<Void> json(HttpServerResponse response, String body) {
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .sendString(Mono.just(body));
+    }
+
+    private static String product(int id) {
+        return "{\"id\":" + id + ",\"title\":\"Product " + id + "\",\"price\":9.5,\"category\":\"misc\"}";
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.RefreshToken;
+import com.example.ecommerce.exception.UnauthorizedException;
+import com.example.ecommerce.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(repository, meterRegistry);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 60000L);
+        ReflectionTestUtils.setField(service, "indexMaxSize", 100L);
+        service.init();
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            return Mono.just(token);
+        });
+        when(repository.markUsed(anyString(), any())).thenReturn(Mono.just(1));
+        when(repository.deleteByFamilyId(anyString())).thenReturn(Mono.just(2));
+    }
+
+    @Test
+    void storesOnlyTheDigestAndValidatesFromMemory() {
+        RefreshToken saved = service.saveRefreshToken(7L, "token-a").block();
+
+        assertThat(saved.getTokenHash()).hasSize(64).isEqualTo(RefreshTokenService.hash("token-a"));
+        StepVerifier.create(service.validate("token-a"))
+            .assertNext(token -> assertThat(token.getUserId()).isEqualTo(7L))
+            .verifyComplete();
+        verify(repository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void fallsBackToTheDatabaseForUnindexedTokens() {
+        RefreshToken stored = RefreshToken.builder()
+            .id(1L)
+            .tokenHash(RefreshTokenService.hash("token-a"))
+            .userId(7L)
+            .familyId("family")
+            .expiryDate(LocalDateTime.now().plusMinutes(1))
+            .build();
+        when(repository.findByTokenHash(stored.getTokenHash())).thenReturn(Mono.just(stored));
+        when(repository.findByTokenHash(RefreshTokenService.hash("unknown"))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.validate("token-a")).expectNext(stored).verifyComplete();
+        StepVerifier.create(service.validate("unknown")).expectError(UnauthorizedException.class).verify();
+    }
+
+    @Test
+    void rotatesWithinTheFamilyAndRevokesItOnReuse() {
+        RefreshToken first = service.saveRefreshToken(7L, "token-a").block();
+        RefreshToken second = service.rotate(service.validate("token-a").block(), "token-b").block();
+
+        assertThat(second.getFamilyId()).isEqualTo(first.getFamilyId());
+        StepVerifier.create(service.validate("token-b")).expectNext(second).verifyComplete();
+
+        // The old token is presented again: the whole family goes
+        StepVerifier.create(service.validate("token-a"))
+            .expectErrorMessage("Refresh token has already been used")
+            .verify();
+        verify(repository).deleteByFamilyId(first.getFamilyId());
+        when(repository.findByTokenHash(anyString())).thenReturn(Mono.empty());
+        StepVerifier.create(service.validate("token-b")).expectError(UnauthorizedException.class).verify();
+        assertThat(meterRegistry.get("refresh_tokens.reuse_detected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void revokesTheFamilyWhenAConcurrentRotationWon() {
+        RefreshToken first = service.saveRefreshToken(7L, "token-a").block();
+        when(repository.markUsed(eq(first.getTokenHash()), any())).thenReturn(Mono.just(0));
+
+        StepVerifier.create(service.rotate(first, "token-b"))
+            .expectError(UnauthorizedException.class)
+            .verify();
+        verify(repository).deleteByFamilyId(first.getFamilyId());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.ecommerce.service;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamResilienceTest {
+
+    private final AtomicInteger flakyHits = new AtomicInteger();
+    private final AtomicInteger downHits = new AtomicInteger();
+    private final AtomicInteger missingHits = new AtomicInteger();
+
+    private DisposableServer stub;
+    private WebClient webClient;
+    private UpstreamResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        // Fault-injecting stub: /flaky fails twice then recovers, /down always fails, /slow holds the call
+        stub = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                .route(request -> request.uri().equals("/flaky"), (request, response) ->
+                    flakyHits.incrementAndGet() <= 2
+                        ? response.status(503).send()
+                        : response.sendString(Mono.just("ok")))
+                .get("/down", (request, response) -> {
+                    downHits.incrementAndGet();
+                    return response.status(500).send();
+                })
+                .get("/missing", (request, response) -> {
+                    missingHits.incrementAndGet();
+                    return response.status(404).send();
+                })
+                .get("/slow", (request, response) -> response.sendString(
+                    Mono.delay(Duration.ofMillis(300)).thenReturn("slow"))))
+            .bindNow();
+        webClient = WebClient.create("http://localhost:" + stub.port());
+
+        UpstreamFailurePredicate failurePredicate = new UpstreamFailurePredicate();
+        resilience = new UpstreamResilience(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .recordException(failurePredicate)
+                .build()),
+            RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(3)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(Duration.ofMillis(10), 2, 0.5))
+                .retryOnException(failurePredicate)
+                .build()),
+            BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+    }
+
+    @Test
+    void readRetriesTransientFailures() {
+        StepVerifier.create(resilience.read("test", get("/flaky")))
+            .expectNext("ok")
+            .verifyComplete();
+        assertThat(flakyHits).hasValue(3);
+    }
+
+    @Test
+    void readDoesNotRetryClientErrors() {
+        StepVerifier.create(resilience.read("test", get("/missing")))
+            .expectError(WebClientResponseException.NotFound.class)
+            .verify();
+        assertThat(missingHits).hasValue(1);
+    }
+
+    @Test
+    void writeIsNotRetried() {
+        Mono<String> post = webClient.post().uri("/flaky").retrieve().bodyToMono(String.class);
+
+        StepVerifier.create(resilience.write("test", post))
+            .expectError(WebClientResponseException.ServiceUnavailable.class)
+            .verify();
+        assertThat(flakyHits).hasValue(1);
+    }
+
+    @Test
+    void circuitOpensAndStopsCallingFailingUpstream() {
+        StepVerifier.create(resilience.read("test", get("/down")))
+            .expectError(WebClientResponseException.InternalServerError.class)
+            .verify();
+        StepVerifier.create(resilience.read("test", get("/down")))
+            .expectError(CallNotPermittedException.class)
+            .verify();
+        int hitsWhenOpen = downHits.get();
+
+        StepVerifier.create(resilience.read("test", get("/down")))
+            .expectError(CallNotPermittedException.class)
+            .verify();
+        assertThat(downHits).hasValue(hitsWhenOpen);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() {
+        Mono<String> first = resilience.write("slow", get("/slow")).cache();
+        first.subscribe();
+
+        StepVerifier.create(resilience.write("slow", get("/slow")))
+            .expectError(BulkheadFullException.class)
+            .verify();
+        StepVerifier.create(first)
+            .expectNext("slow")
+            .verifyComplete();
+    }
+
+    private Mono<String> get(String path) {
+        return webClient.get().uri(path).retrieve().bodyToMono(String.class);
+    }
+}